@@ -0,0 +1,96 @@
+package com.example.SoloFocus.io.benchmarks;
+
+import com.example.SoloFocus.io.Application;
+import com.example.SoloFocus.io.service.StatisticsService;
+import com.example.SoloFocus.io.service.UserService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Boots the application against an in-memory H2 database (MySQL mode) and seeds a
+// synthetic user. The dashboard cache is disabled so every call does the real work.
+public final class BenchmarkContext {
+    
+    private static final int BATCH_SIZE = 5_000;
+    
+    private BenchmarkContext() {
+    }
+    
+    public static ConfigurableApplicationContext start() {
+        // Passed as command-line arguments so they take precedence over application.properties
+        return new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:bench" + System.nanoTime() + ";MODE=MySQL",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.cache.type=none",
+                        "--solofocus.sessions.journal-path=" + Path.of(System.getProperty("java.io.tmpdir"),
+                                "solofocus-bench-" + System.nanoTime() + ".journal"),
+                        "--logging.level.root=WARN");
+    }
+    
+    // Creates a user with sessionCount sessions, one in four being a short break, spread
+    // over up to ten years so streaks and yearly windows see realistic gaps.
+    public static Long createUser(ConfigurableApplicationContext context, int sessionCount) {
+        UserService userService = context.getBean(UserService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        
+        Long userId = userService.registerUser("bench" + sessionCount, "bench" + sessionCount + "@example.com",
+                "benchmark").getId();
+        
+        int spanDays = Math.max(1, Math.min(3650, sessionCount / 4));
+        LocalDate today = LocalDate.now();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        
+        for (int i = 0; i < sessionCount; i++) {
+            // Leave every seventh day empty so streaks break periodically
+            int dayOffset = i % spanDays;
+            if (dayOffset % 7 == 6) {
+                dayOffset--;
+            }
+            LocalDateTime start = today.minusDays(dayOffset).atTime(8 + (i / spanDays) % 12, 0);
+            boolean pomodoro = i % 4 != 3;
+            int minutes = pomodoro ? 25 : 5;
+            batch.add(new Object[] {
+                    userId,
+                    Timestamp.valueOf(start),
+                    Timestamp.valueOf(start.plusMinutes(minutes)),
+                    minutes,
+                    pomodoro ? "pomodoro" : "short_break",
+                    Timestamp.valueOf(start.plusMinutes(minutes))
+            });
+            if (batch.size() == BATCH_SIZE) {
+                insert(jdbcTemplate, batch);
+                batch.clear();
+            }
+        }
+        insert(jdbcTemplate, batch);
+        
+        // Bring the stored totals, rollup and activity bitmap in line with the seeded history
+        StatisticsService statisticsService = context.getBean(StatisticsService.class);
+        statisticsService.updateUserStatistics(userId);
+        statisticsService.rebuildDailyFocus(userId);
+        return userId;
+    }
+    
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO focus_sessions " +
+                    "(user_id, start_time, end_time, duration_minutes, session_type, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)", batch);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.SoloFocus.io.benchmarks;
+
+import com.example.SoloFocus.io.dto.DashboardSnapshot;
+import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.service.StatisticsService;
+import com.example.SoloFocus.io.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of the statistics paths for users with small, large and very large histories.
+// Run with the GC profiler (the exec:exec default) to also get allocation rate per operation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class StatisticsBenchmark {
+    
+    @Param({"100", "10000", "1000000"})
+    public int sessionCount;
+    
+    private ConfigurableApplicationContext context;
+    private StatisticsService statisticsService;
+    private Long userId;
+    private User user;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        statisticsService = context.getBean(StatisticsService.class);
+        userId = BenchmarkContext.createUser(context, sessionCount);
+        user = context.getBean(UserService.class).findById(userId);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public int calculateStreak() {
+        return statisticsService.calculateStreak(user);
+    }
+    
+    @Benchmark
+    public void updateUserStatistics() {
+        statisticsService.updateUserStatistics(userId);
+    }
+    
+    @Benchmark
+    public Map<String, Integer> weeklyStatistics() {
+        return statisticsService.getWeeklyStatistics(userId);
+    }
+    
+    @Benchmark
+    public Map<String, Integer> monthlyStatistics() {
+        return statisticsService.getMonthlyStatistics(userId);
+    }
+    
+    @Benchmark
+    public Map<String, Integer> yearlyStatistics() {
+        return statisticsService.getYearlyStatistics(userId);
+    }
+    
+    @Benchmark
+    public Map<String, Integer> contributionData() {
+        return statisticsService.getContributionData(userId);
+    }
+    
+    @Benchmark
+    public DashboardSnapshot dashboardSnapshot() {
+        return statisticsService.getDashboardSnapshot(userId);
+    }
+}
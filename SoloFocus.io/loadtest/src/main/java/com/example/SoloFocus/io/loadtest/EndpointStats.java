@@ -0,0 +1,43 @@
+package com.example.SoloFocus.io.loadtest;
+
+import java.util.Arrays;
+
+// Every latency measured for one endpoint during the measurement window. All samples are
+// kept, so the percentiles are exact rather than read from histogram buckets.
+final class EndpointStats {
+    
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+    
+    synchronized void record(long nanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+    }
+    
+    synchronized void error() {
+        errors++;
+    }
+    
+    synchronized int getErrors() {
+        return errors;
+    }
+    
+    // Sorted copy of the samples
+    synchronized long[] sortedLatencies() {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+    
+    // Nearest-rank percentile in milliseconds
+    static double percentile(long[] sorted, double percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.SoloFocus.io.loadtest;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Simulates concurrent pomodoro users against the whole application and reports throughput,
+// latency percentiles and SQL statements per endpoint. Run with mvn compile exec:exec; the
+// workload comes from the loadtest.* properties in the pom.
+public final class LoadTest {
+    
+    private LoadTest() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+        ConfigurableApplicationContext context = LoadTestContext.start();
+        try {
+            System.out.printf("Creating %d users with %d sessions each%n", options.users, options.historySessions);
+            LoadTestContext.createUsers(context, options);
+            
+            System.out.printf("Running %d users: %ds warmup (%ds ramp-up), then %ds measured%n",
+                    options.users, options.warmupSeconds, options.rampUpSeconds, options.durationSeconds);
+            LoadTestDriver driver = new LoadTestDriver(options, LoadTestContext.port(context));
+            SqlCounts[] counts = new SqlCounts[2];
+            driver.run(() -> counts[0] = SqlCounts.read(context), () -> counts[1] = SqlCounts.read(context));
+            
+            LoadTestReport report = new LoadTestReport(options, driver, counts[0], counts[1]);
+            report.print();
+            report.write(options.output);
+            if (options.baseline != null) {
+                report.compare(options.baseline);
+            }
+        } finally {
+            context.close();
+        }
+        // The HTTP client's selector thread would otherwise keep the JVM alive
+        System.exit(0);
+    }
+}
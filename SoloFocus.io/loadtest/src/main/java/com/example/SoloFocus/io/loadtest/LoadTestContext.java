@@ -0,0 +1,108 @@
+package com.example.SoloFocus.io.loadtest;
+
+import com.example.SoloFocus.io.Application;
+import com.example.SoloFocus.io.service.LeaderboardService;
+import com.example.SoloFocus.io.service.StatisticsService;
+import com.example.SoloFocus.io.service.UserService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Boots the full web application on random ports against an in-memory H2 database in
+// MySQL mode, so the load test needs no network or database server. Everything else,
+// including the dashboard cache and the session journal, is configured as in production.
+final class LoadTestContext {
+    
+    static final String PASSWORD = "loadtest";
+    
+    private static final int BATCH_SIZE = 5_000;
+    
+    private LoadTestContext() {
+    }
+    
+    static ConfigurableApplicationContext start() {
+        // Passed as command-line arguments so they take precedence over application.properties
+        return new SpringApplicationBuilder(Application.class)
+                .run(
+                        "--server.port=0",
+                        // Otherwise the actuator binds the fixed production port and clashes with a running app
+                        "--management.server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--solofocus.sessions.journal-path=" + Path.of(System.getProperty("java.io.tmpdir"),
+                                "solofocus-loadtest-" + System.nanoTime() + ".journal"),
+                        "--solofocus.archive.enabled=false",
+                        "--logging.level.root=WARN");
+    }
+    
+    static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+    
+    static String username(int user) {
+        return "loadtest" + user;
+    }
+    
+    // Registers the simulated users, each with historySessions pomodoros spread over the last
+    // year, so the dashboard aggregates a realistic history from the first request on
+    static void createUsers(ConfigurableApplicationContext context, LoadTestOptions options) {
+        UserService userService = context.getBean(UserService.class);
+        StatisticsService statisticsService = context.getBean(StatisticsService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Random random = new Random(options.seed);
+        LocalDate today = LocalDate.now();
+        
+        List<Long> userIds = new ArrayList<>(options.users);
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int user = 0; user < options.users; user++) {
+            Long userId = userService.registerUser(username(user), username(user) + "@example.com", PASSWORD).getId();
+            userIds.add(userId);
+            for (int i = 0; i < options.historySessions; i++) {
+                LocalDateTime start = today.minusDays(1 + random.nextInt(365)).atTime(7 + random.nextInt(14), 0);
+                batch.add(new Object[] {
+                        userId,
+                        Timestamp.valueOf(start),
+                        Timestamp.valueOf(start.plusMinutes(25)),
+                        25,
+                        "pomodoro",
+                        Timestamp.valueOf(start.plusMinutes(25))
+                });
+                if (batch.size() == BATCH_SIZE) {
+                    insert(jdbcTemplate, batch);
+                    batch.clear();
+                }
+            }
+        }
+        insert(jdbcTemplate, batch);
+        // The rows above took auto-increment ids; move the pooled generator past them
+        jdbcTemplate.update("UPDATE id_generators SET next_val = (SELECT COALESCE(MAX(id), 0) + 50 FROM focus_sessions) " +
+                "WHERE sequence_name = 'focus_sessions'");
+        
+        // Bring the stored totals, rollup and leaderboard in line with the seeded history
+        for (Long userId : userIds) {
+            statisticsService.updateUserStatistics(userId);
+            statisticsService.rebuildDailyFocus(userId);
+        }
+        context.getBean(LeaderboardService.class).rebuild();
+    }
+    
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO focus_sessions " +
+                    "(user_id, start_time, end_time, duration_minutes, session_type, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)", batch);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.SoloFocus.io.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+// Runs the simulated users and times every request. A user that is thinking or in the middle
+// of a pomodoro is only a task on the scheduler, so thousands of users need a few threads.
+// Users start evenly over the ramp-up; requests started during the warmup are not measured.
+final class LoadTestDriver {
+    
+    static final String LOGIN = "POST /auth/login";
+    static final String START = "POST /timer/start";
+    static final String END = "POST /timer/end";
+    static final String DASHBOARD = "GET /dashboard";
+    static final String DASHBOARD_DATA = "GET /dashboard/data";
+    static final List<String> ENDPOINTS = List.of(LOGIN, START, END, DASHBOARD, DASHBOARD_DATA);
+    
+    private final LoadTestOptions options;
+    private final URI baseUri;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final CountDownLatch finished;
+    private volatile long measureFrom;
+    private volatile long measureUntil;
+    
+    LoadTestDriver(LoadTestOptions options, int port) {
+        this.options = options;
+        this.baseUri = URI.create("http://localhost:" + port);
+        this.finished = new CountDownLatch(options.users);
+        for (String endpoint : ENDPOINTS) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+    
+    // Blocks until every user has stopped. atWindowStart and atWindowEnd run on the
+    // scheduler when the measurement window opens and closes.
+    void run(Runnable atWindowStart, Runnable atWindowEnd) throws InterruptedException, ExecutionException {
+        long now = System.nanoTime();
+        measureFrom = now + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        ScheduledFuture<?> windowStart = scheduler.schedule(atWindowStart, options.warmupSeconds, TimeUnit.SECONDS);
+        ScheduledFuture<?> windowEnd = scheduler.schedule(atWindowEnd, options.warmupSeconds + options.durationSeconds, TimeUnit.SECONDS);
+        
+        for (int user = 0; user < options.users; user++) {
+            SimulatedUser simulatedUser = new SimulatedUser(this, user, new Random(options.seed + user));
+            long delay = TimeUnit.SECONDS.toMillis(options.rampUpSeconds) * user / options.users;
+            scheduler.schedule(simulatedUser::login, delay, TimeUnit.MILLISECONDS);
+        }
+        
+        // In-flight requests are given a minute to finish after the window closes
+        finished.await(options.warmupSeconds + options.durationSeconds + 60, TimeUnit.SECONDS);
+        windowStart.get();
+        windowEnd.get();
+        scheduler.shutdownNow();
+    }
+    
+    LoadTestOptions options() {
+        return options;
+    }
+    
+    Map<String, EndpointStats> getStats() {
+        return stats;
+    }
+    
+    HttpRequest.Builder request(String path, String cookie) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path)).timeout(Duration.ofSeconds(30));
+        if (cookie != null) {
+            builder.header("Cookie", cookie);
+        }
+        return builder;
+    }
+    
+    HttpRequest post(String path, String form, String cookie) {
+        return request(path, cookie)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+    
+    // Completes with the response, or with null when the request failed or ok rejected it
+    CompletableFuture<HttpResponse<String>> send(String endpoint, HttpRequest request,
+                                                 Predicate<HttpResponse<String>> ok) {
+        long started = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).handle((response, error) -> {
+            boolean success = error == null && ok.test(response);
+            if (started >= measureFrom && started < measureUntil) {
+                if (success) {
+                    stats.get(endpoint).record(System.nanoTime() - started);
+                } else {
+                    stats.get(endpoint).error();
+                }
+            }
+            return success ? response : null;
+        });
+    }
+    
+    // Runs the user's next step after the delay, unless that falls after the window closes
+    void later(long delayMillis, Runnable step) {
+        if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis) >= measureUntil) {
+            finished.countDown();
+            return;
+        }
+        scheduler.schedule(step, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
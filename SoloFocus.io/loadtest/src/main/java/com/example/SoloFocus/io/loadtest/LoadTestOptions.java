@@ -0,0 +1,52 @@
+package com.example.SoloFocus.io.loadtest;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Workload settings, read from loadtest.* system properties (the pom passes its properties).
+// Runs are only comparable when these are the same, so they are written into every report.
+final class LoadTestOptions {
+    
+    final int users;
+    final int rampUpSeconds;
+    final int warmupSeconds;
+    final int durationSeconds;
+    final long thinkMedianMillis;
+    final long focusMedianMillis;
+    final int historySessions;
+    final long seed;
+    final Path output;
+    final Path baseline;
+    
+    private LoadTestOptions() {
+        users = Integer.getInteger("loadtest.users", 2000);
+        rampUpSeconds = Integer.getInteger("loadtest.ramp-up-seconds", 30);
+        warmupSeconds = Math.max(rampUpSeconds, Integer.getInteger("loadtest.warmup-seconds", 30));
+        durationSeconds = Integer.getInteger("loadtest.duration-seconds", 120);
+        thinkMedianMillis = Long.getLong("loadtest.think-median-millis", 2000);
+        focusMedianMillis = Long.getLong("loadtest.focus-median-millis", 10000);
+        historySessions = Integer.getInteger("loadtest.history-sessions", 200);
+        seed = Long.getLong("loadtest.seed", 42);
+        output = Path.of(System.getProperty("loadtest.output", "target/loadtest-results.json"));
+        String baselinePath = System.getProperty("loadtest.baseline", "");
+        baseline = baselinePath.isBlank() ? null : Path.of(baselinePath);
+    }
+    
+    static LoadTestOptions fromSystemProperties() {
+        return new LoadTestOptions();
+    }
+    
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("users", users);
+        map.put("rampUpSeconds", rampUpSeconds);
+        map.put("warmupSeconds", warmupSeconds);
+        map.put("durationSeconds", durationSeconds);
+        map.put("thinkMedianMillis", thinkMedianMillis);
+        map.put("focusMedianMillis", focusMedianMillis);
+        map.put("historySessions", historySessions);
+        map.put("seed", seed);
+        return map;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.SoloFocus.io.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Summarises a run per endpoint, prints it, and writes it as JSON next to the build output.
+// Given the JSON of an earlier run, it also prints how p95 latency and throughput moved.
+final class LoadTestReport {
+    
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    
+    private final Map<String, Object> report = new LinkedHashMap<>();
+    
+    LoadTestReport(LoadTestOptions options, LoadTestDriver driver, SqlCounts before, SqlCounts after) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long requests = 0;
+        for (String endpoint : LoadTestDriver.ENDPOINTS) {
+            EndpointStats stats = driver.getStats().get(endpoint);
+            long[] sorted = stats.sortedLatencies();
+            requests += sorted.length;
+            
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", sorted.length);
+            row.put("errors", stats.getErrors());
+            row.put("throughput", round((double) sorted.length / options.durationSeconds));
+            // Users log in once, usually during the ramp-up, so an endpoint can have no samples
+            if (sorted.length > 0) {
+                row.put("p50Millis", round(EndpointStats.percentile(sorted, 50)));
+                row.put("p95Millis", round(EndpointStats.percentile(sorted, 95)));
+                row.put("p99Millis", round(EndpointStats.percentile(sorted, 99)));
+                row.put("maxMillis", round(EndpointStats.percentile(sorted, 100)));
+            }
+            double statements = SqlCounts.statementsPerRequest(before, after, endpoint);
+            if (statements >= 0) {
+                row.put("sqlStatementsPerRequest", round(statements));
+            }
+            endpoints.put(endpoint, row);
+        }
+        
+        report.put("options", options.toMap());
+        report.put("throughput", round((double) requests / options.durationSeconds));
+        report.put("sqlStatementsPerSecond",
+                round((double) SqlCounts.totalStatements(before, after) / options.durationSeconds));
+        report.put("endpoints", endpoints);
+    }
+    
+    @SuppressWarnings("unchecked")
+    void print() {
+        System.out.printf("%n%-20s %9s %7s %8s %9s %9s %9s %9s %8s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "sql/req");
+        Map<String, Map<String, Object>> endpoints = (Map<String, Map<String, Object>>) report.get("endpoints");
+        for (Map.Entry<String, Map<String, Object>> entry : endpoints.entrySet()) {
+            Map<String, Object> row = entry.getValue();
+            System.out.printf("%-20s %9s %7s %8s %9s %9s %9s %9s %8s%n", entry.getKey(),
+                    row.get("requests"), row.get("errors"), row.get("throughput"),
+                    row.getOrDefault("p50Millis", "-"), row.getOrDefault("p95Millis", "-"),
+                    row.getOrDefault("p99Millis", "-"), row.getOrDefault("maxMillis", "-"),
+                    row.getOrDefault("sqlStatementsPerRequest", "-"));
+        }
+        System.out.printf("%nthroughput %s req/s, %s SQL statements/s (including background work)%n",
+                report.get("throughput"), report.get("sqlStatementsPerSecond"));
+    }
+    
+    void write(Path output) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), report);
+        System.out.println("Results written to " + output);
+    }
+    
+    // Percent change against an earlier run; only meaningful when its options match
+    void compare(Path baselinePath) throws IOException {
+        JsonNode baseline = OBJECT_MAPPER.readTree(baselinePath.toFile());
+        // Read back from text so numbers compare the same way on both sides
+        JsonNode current = OBJECT_MAPPER.readTree(OBJECT_MAPPER.writeValueAsString(report));
+        if (!baseline.path("options").equals(current.path("options"))) {
+            System.out.println("Warning: the baseline ran with different options " + baseline.path("options"));
+        }
+        
+        System.out.printf("%nCompared with %s%n", baselinePath);
+        System.out.printf("%-20s %12s %12s%n", "endpoint", "p95", "req/s");
+        for (Map.Entry<String, JsonNode> entry : current.path("endpoints").properties()) {
+            JsonNode before = baseline.path("endpoints").path(entry.getKey());
+            System.out.printf("%-20s %12s %12s%n", entry.getKey(),
+                    change(before.path("p95Millis"), entry.getValue().path("p95Millis")),
+                    change(before.path("throughput"), entry.getValue().path("throughput")));
+        }
+        System.out.printf("%-20s %12s %12s%n", "total", "",
+                change(baseline.path("throughput"), current.path("throughput")));
+    }
+    
+    private static String change(JsonNode before, JsonNode after) {
+        if (!before.isNumber() || before.asDouble() <= 0) {
+            return "n/a";
+        }
+        return String.format("%+.1f%%", (after.asDouble() - before.asDouble()) / before.asDouble() * 100);
+    }
+    
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.SoloFocus.io.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpResponse;
+import java.util.Random;
+
+// One user working through pomodoros the way the browser client does: log in, start a
+// session, end it when the timer runs out, look at the dashboard, pause, and start again.
+// Pauses are log-normal around the configured medians; each user has its own seeded random,
+// so every run replays the same sequence of pauses and durations.
+final class SimulatedUser {
+    
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    
+    private final LoadTestDriver driver;
+    private final int index;
+    private final Random random;
+    private String cookie;
+    private String sessionId;
+    private String etag;
+    
+    SimulatedUser(LoadTestDriver driver, int index, Random random) {
+        this.driver = driver;
+        this.index = index;
+        this.random = random;
+    }
+    
+    void login() {
+        String form = "username=" + LoadTestContext.username(index) + "&password=" + LoadTestContext.PASSWORD;
+        driver.send(LoadTestDriver.LOGIN, driver.post("/auth/login", form, null),
+                // A failed login redirects back to the form; the first redirect may carry ;jsessionid
+                response -> response.statusCode() == 302
+                        && response.headers().firstValue("Location").orElse("").contains("/timer"))
+                .thenAccept(response -> {
+                    if (response == null) {
+                        driver.later(think(), this::login);
+                        return;
+                    }
+                    cookie = response.headers().firstValue("Set-Cookie").map(value -> value.split(";", 2)[0]).orElse(null);
+                    driver.later(think(), this::startSession);
+                });
+    }
+    
+    private void startSession() {
+        driver.send(LoadTestDriver.START, driver.post("/timer/start", "sessionType=pomodoro", cookie),
+                response -> response.statusCode() == 200)
+                .thenAccept(response -> {
+                    JsonNode body = response != null ? readJson(response) : null;
+                    if (body == null || !body.hasNonNull("sessionId")) {
+                        driver.later(think(), this::startSession);
+                        return;
+                    }
+                    sessionId = body.get("sessionId").asText();
+                    driver.later(logNormal(driver.options().focusMedianMillis, 0.3), this::endSession);
+                });
+    }
+    
+    private void endSession() {
+        // Most pomodoros run their full 25 minutes; some are stopped early
+        int minutes = random.nextDouble() < 0.85 ? 25 : 5 + random.nextInt(20);
+        driver.send(LoadTestDriver.END,
+                driver.post("/timer/end", "sessionId=" + sessionId + "&durationMinutes=" + minutes, cookie),
+                response -> response.statusCode() == 200)
+                .thenAccept(response -> driver.later(think(), this::viewDashboard));
+    }
+    
+    // The page, then the chart data the page's script fetches, revalidated with the last ETag
+    private void viewDashboard() {
+        driver.send(LoadTestDriver.DASHBOARD, driver.request("/dashboard", cookie).GET().build(),
+                response -> response.statusCode() == 200)
+                .thenCompose(page -> {
+                    var request = driver.request("/dashboard/data", cookie).GET();
+                    if (etag != null) {
+                        request.header("If-None-Match", etag);
+                    }
+                    return driver.send(LoadTestDriver.DASHBOARD_DATA, request.build(),
+                            response -> response.statusCode() == 200 || response.statusCode() == 304);
+                })
+                .thenAccept(response -> {
+                    if (response != null && response.statusCode() == 200) {
+                        etag = response.headers().firstValue("ETag").orElse(null);
+                    }
+                    driver.later(think(), this::startSession);
+                });
+    }
+    
+    private long think() {
+        return logNormal(driver.options().thinkMedianMillis, 0.75);
+    }
+    
+    // Mostly close to the median, now and then several times longer; capped at ten times
+    private long logNormal(long median, double sigma) {
+        return (long) Math.min(median * 10.0, median * Math.exp(sigma * random.nextGaussian()));
+    }
+    
+    private static JsonNode readJson(HttpResponse<String> response) {
+        try {
+            return OBJECT_MAPPER.readTree(response.body());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.SoloFocus.io.loadtest;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// The application's own SQL statement counters at one moment. Two readings, taken when the
+// measurement window opens and closes, give the statements issued inside it: per endpoint
+// from the request metrics, and in total (including the background statistics workers)
+// from Hibernate's statistics.
+final class SqlCounts {
+    
+    // Requests and statements per "METHOD /uri"
+    private final Map<String, long[]> endpoints = new HashMap<>();
+    private final long total;
+    
+    private SqlCounts(ConfigurableApplicationContext context) {
+        MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+        for (DistributionSummary summary : meterRegistry.find("http.server.requests.sql.statements").summaries()) {
+            String endpoint = summary.getId().getTag("method") + " " + summary.getId().getTag("uri");
+            endpoints.merge(endpoint, new long[] {summary.count(), (long) summary.totalAmount()}, (a, b) ->
+                    new long[] {a[0] + b[0], a[1] + b[1]});
+        }
+        total = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class)
+                .getStatistics().getPrepareStatementCount();
+    }
+    
+    static SqlCounts read(ConfigurableApplicationContext context) {
+        return new SqlCounts(context);
+    }
+    
+    // Statements per request for the endpoint between the two readings, or -1 without requests
+    static double statementsPerRequest(SqlCounts before, SqlCounts after, String endpoint) {
+        long[] start = before.endpoints.getOrDefault(endpoint, new long[2]);
+        long[] end = after.endpoints.getOrDefault(endpoint, new long[2]);
+        long requests = end[0] - start[0];
+        return requests == 0 ? -1 : (double) (end[1] - start[1]) / requests;
+    }
+    
+    static long totalStatements(SqlCounts before, SqlCounts after) {
+        return after.total - before.total;
+    }
+}
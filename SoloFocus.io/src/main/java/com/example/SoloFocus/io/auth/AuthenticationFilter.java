@@ -0,0 +1,31 @@
+package com.example.SoloFocus.io.auth;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Resolves the logged-in user before any other application filter runs
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+public class AuthenticationFilter extends OncePerRequestFilter {
+    
+    private final Authenticator authenticator;
+    
+    public AuthenticationFilter(Authenticator authenticator) {
+        this.authenticator = authenticator;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        authenticator.authenticate(request, response);
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.SoloFocus.io.auth;
+
+import com.example.SoloFocus.io.model.User;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Remembers who is logged in between requests: in the HttpSession by default, or in a
+// signed token cookie under the stateless profile, where no node keeps any login state.
+// Either way AuthenticationFilter puts the user on each request as the userId and username
+// attributes, which is all controllers and templates read.
+@Component
+public class Authenticator {
+    
+    public static final String USER_ID = "userId";
+    public static final String USERNAME = "username";
+    
+    private static final String BEARER = "Bearer ";
+    
+    // Only present under the stateless profile
+    @Autowired(required = false)
+    private TokenSigner tokenSigner;
+    
+    @Value("${solofocus.auth.token.cookie-name:SOLOFOCUS_TOKEN}")
+    private String cookieName;
+    
+    @Value("${solofocus.auth.token.secure-cookie:false}")
+    private boolean secureCookie;
+    
+    public void signIn(HttpServletRequest request, HttpServletResponse response, User user) {
+        if (tokenSigner != null) {
+            setCookie(response, tokenSigner.issue(user.getId(), user.getUsername()), tokenSigner.getTtl());
+        } else {
+            HttpSession session = request.getSession();
+            session.setAttribute(USER_ID, user.getId());
+            session.setAttribute(USERNAME, user.getUsername());
+        }
+    }
+    
+    // A token cannot be revoked; clearing the cookie ends the login in this browser only
+    public void signOut(HttpServletRequest request, HttpServletResponse response) {
+        if (tokenSigner != null) {
+            setCookie(response, "", Duration.ZERO);
+        } else {
+            HttpSession session = request.getSession(false);
+            if (session != null) {
+                session.invalidate();
+            }
+        }
+    }
+    
+    void authenticate(HttpServletRequest request, HttpServletResponse response) {
+        if (tokenSigner == null) {
+            HttpSession session = request.getSession(false);
+            if (session != null) {
+                request.setAttribute(USER_ID, session.getAttribute(USER_ID));
+                request.setAttribute(USERNAME, session.getAttribute(USERNAME));
+            }
+            return;
+        }
+        
+        String token = readToken(request);
+        TokenSigner.SignedToken signedToken = token != null ? tokenSigner.verify(token) : null;
+        if (signedToken == null) {
+            return;
+        }
+        request.setAttribute(USER_ID, signedToken.getUserId());
+        request.setAttribute(USERNAME, signedToken.getUsername());
+        
+        // Active users get a fresh cookie before theirs expires; it also moves them onto a new key
+        if (tokenSigner.needsRenewal(signedToken) && !response.isCommitted()) {
+            setCookie(response, tokenSigner.issue(signedToken.getUserId(), signedToken.getUsername()), tokenSigner.getTtl());
+        }
+    }
+    
+    // The cookie for browsers, or an Authorization header for API clients
+    private String readToken(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER)) {
+            return authorization.substring(BEARER.length());
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (cookie.getName().equals(cookieName)) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+    
+    private void setCookie(HttpServletResponse response, String value, Duration maxAge) {
+        ResponseCookie cookie = ResponseCookie.from(cookieName, value)
+                .path("/")
+                .httpOnly(true)
+                .secure(secureCookie)
+                .sameSite("Lax")
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
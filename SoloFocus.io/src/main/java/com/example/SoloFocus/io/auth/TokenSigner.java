@@ -0,0 +1,180 @@
+package com.example.SoloFocus.io.auth;
+
+import com.example.SoloFocus.io.model.ActiveSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Issues and checks the signed login tokens of the stateless profile. A token is
+// keyId.userId.expiresAt.username.signature: the username base64url-encoded, the signature
+// an HMAC-SHA256 over everything before it. Checking one needs no lookup.
+// Keys are configured as id:secret pairs. The first one signs; the others are only
+// accepted, so tokens issued before a rotation stay valid until they expire or are renewed.
+// Running pomodoros are signed the same way, as s.keyId.userId.startTime.sessionType.signature,
+// so the node that ends a session need not be the one that started it.
+@Component
+@Profile("stateless")
+public class TokenSigner {
+    
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final String SESSION_PREFIX = "s.";
+    
+    private final Map<String, SecretKeySpec> keys = new LinkedHashMap<>();
+    private final String signingKeyId;
+    private final Duration ttl;
+    
+    public TokenSigner(@Value("${solofocus.auth.token.keys:}") List<String> keySpecs,
+                       @Value("${solofocus.auth.token.ttl-hours:12}") long ttlHours) {
+        for (String keySpec : keySpecs) {
+            if (keySpec.isBlank()) {
+                continue;
+            }
+            int colon = keySpec.indexOf(':');
+            String keyId = colon > 0 ? keySpec.substring(0, colon).trim() : "";
+            if (keyId.isEmpty() || keyId.contains(".")) {
+                throw new IllegalArgumentException("solofocus.auth.token.keys entries must be id:base64-secret");
+            }
+            byte[] secret = Base64.getDecoder().decode(keySpec.substring(colon + 1).trim());
+            if (secret.length < MIN_SECRET_BYTES) {
+                throw new IllegalArgumentException("Token key " + keyId + " must be at least " + MIN_SECRET_BYTES + " bytes");
+            }
+            keys.put(keyId, new SecretKeySpec(secret, ALGORITHM));
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("solofocus.auth.token.keys is required by the stateless profile");
+        }
+        this.signingKeyId = keys.keySet().iterator().next();
+        this.ttl = Duration.ofHours(ttlHours);
+    }
+    
+    public String issue(Long userId, String username) {
+        long expiresAt = Instant.now().plus(ttl).getEpochSecond();
+        String payload = signingKeyId + "." + userId + "." + expiresAt + "." + encode(username.getBytes(StandardCharsets.UTF_8));
+        return payload + "." + encode(sign(keys.get(signingKeyId), payload));
+    }
+    
+    // The token's contents, or null if it is malformed, unsigned by a known key or expired
+    public SignedToken verify(String token) {
+        String[] parts = token.split("\\.", -1);
+        if (parts.length != 5) {
+            return null;
+        }
+        SecretKeySpec key = keys.get(parts[0]);
+        if (key == null) {
+            return null;
+        }
+        try {
+            String payload = token.substring(0, token.lastIndexOf('.'));
+            if (!MessageDigest.isEqual(sign(key, payload), Base64.getUrlDecoder().decode(parts[4]))) {
+                return null;
+            }
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(parts[2]));
+            if (!expiresAt.isAfter(Instant.now())) {
+                return null;
+            }
+            String username = new String(Base64.getUrlDecoder().decode(parts[3]), StandardCharsets.UTF_8);
+            return new SignedToken(parts[0], Long.valueOf(parts[1]), username, expiresAt);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    public String issueSession(ActiveSession session) {
+        long startMillis = session.getStartTime().toInstant(ZoneOffset.UTC).toEpochMilli();
+        String payload = SESSION_PREFIX + signingKeyId + "." + session.getUserId() + "." + startMillis + "."
+                + encode(session.getSessionType().getBytes(StandardCharsets.UTF_8));
+        return payload + "." + encode(sign(keys.get(signingKeyId), payload));
+    }
+    
+    // The running session, or null if the token is not a valid session token for this user.
+    // How old the session may be is left to the caller.
+    public ActiveSession verifySession(String token, Long userId) {
+        if (!token.startsWith(SESSION_PREFIX)) {
+            return null;
+        }
+        String[] parts = token.substring(SESSION_PREFIX.length()).split("\\.", -1);
+        if (parts.length != 5) {
+            return null;
+        }
+        SecretKeySpec key = keys.get(parts[0]);
+        if (key == null) {
+            return null;
+        }
+        try {
+            String payload = token.substring(0, token.lastIndexOf('.'));
+            if (!MessageDigest.isEqual(sign(key, payload), Base64.getUrlDecoder().decode(parts[4]))) {
+                return null;
+            }
+            if (!Long.valueOf(parts[1]).equals(userId)) {
+                return null;
+            }
+            LocalDateTime startTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(parts[2])), ZoneOffset.UTC);
+            String sessionType = new String(Base64.getUrlDecoder().decode(parts[3]), StandardCharsets.UTF_8);
+            return new ActiveSession(0, userId, sessionType, startTime);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    // Renewed once half its lifetime has passed, or when it was signed with a retired key
+    public boolean needsRenewal(SignedToken token) {
+        return !token.keyId.equals(signingKeyId)
+                || Duration.between(Instant.now(), token.expiresAt).compareTo(ttl.dividedBy(2)) < 0;
+    }
+    
+    public Duration getTtl() {
+        return ttl;
+    }
+    
+    private static byte[] sign(SecretKeySpec key, String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Could not sign token", e);
+        }
+    }
+    
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    public static final class SignedToken {
+        
+        private final String keyId;
+        private final Long userId;
+        private final String username;
+        private final Instant expiresAt;
+        
+        SignedToken(String keyId, Long userId, String username, Instant expiresAt) {
+            this.keyId = keyId;
+            this.userId = userId;
+            this.username = username;
+            this.expiresAt = expiresAt;
+        }
+        
+        public Long getUserId() {
+            return userId;
+        }
+        
+        public String getUsername() {
+            return username;
+        }
+    }
+}
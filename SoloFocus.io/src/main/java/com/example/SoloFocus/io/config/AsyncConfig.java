@@ -0,0 +1,87 @@
+package com.example.SoloFocus.io.config;
+
+import com.example.SoloFocus.io.datasource.ReadYourWritesGuard;
+import com.example.SoloFocus.io.metrics.SqlStatementStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+    
+    @Value("${solofocus.statistics.worker-threads:2}")
+    private int statisticsWorkerThreads;
+    
+    @Value("${solofocus.statistics.queue-capacity:1000}")
+    private int statisticsQueueCapacity;
+    
+    @Value("${solofocus.statistics.drain-timeout-seconds:30}")
+    private int statisticsDrainTimeoutSeconds;
+    
+    @Value("${solofocus.dashboard.read-threads:8}")
+    private int dashboardReadThreads;
+    
+    @Value("${solofocus.dashboard.push-threads:4}")
+    private int dashboardPushThreads;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    // Bounded pool for statistics recomputation. The rejection policy is set by
+    // StatisticsUpdateWorker, which runs overflow on the caller thread. It stays on
+    // platform threads in virtual mode because its queue is what provides backpressure.
+    @Bean
+    public ThreadPoolTaskExecutor statisticsExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(statisticsWorkerThreads);
+        executor.setMaxPoolSize(statisticsWorkerThreads);
+        executor.setQueueCapacity(statisticsQueueCapacity);
+        executor.setThreadNamePrefix("statistics-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(statisticsDrainTimeoutSeconds);
+        return executor;
+    }
+    
+    // Runs the independent dashboard reads concurrently. In virtual-thread mode each read
+    // gets its own virtual thread and the connection pool is the only limit.
+    @Bean
+    public AsyncTaskExecutor dashboardReadExecutor() {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("dashboard-read-");
+            executor.setVirtualThreads(true);
+            executor.setTaskDecorator(AsyncConfig::propagateRequestContext);
+            return executor;
+        }
+        
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(dashboardReadThreads);
+        executor.setMaxPoolSize(dashboardReadThreads);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("dashboard-read-");
+        executor.setTaskDecorator(AsyncConfig::propagateRequestContext);
+        // A saturated pool just runs the read on the request thread
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+    
+    // Writes to open dashboard streams. Each stream has at most one send queued at a time,
+    // so the queue is bounded by the number of connections.
+    @Bean
+    public ThreadPoolTaskExecutor dashboardPushExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(dashboardPushThreads);
+        executor.setMaxPoolSize(dashboardPushThreads);
+        executor.setThreadNamePrefix("dashboard-push-");
+        return executor;
+    }
+    
+    // The reads count towards the request's SQL tally and are routed for the request's user
+    private static Runnable propagateRequestContext(Runnable task) {
+        return SqlStatementStats.propagate(ReadYourWritesGuard.propagate(task));
+    }
+}
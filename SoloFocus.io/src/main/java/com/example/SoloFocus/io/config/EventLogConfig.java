@@ -0,0 +1,21 @@
+package com.example.SoloFocus.io.config;
+
+import com.example.SoloFocus.io.repository.eventlog.EventLogStore;
+import com.example.SoloFocus.io.repository.eventlog.EventLogTransactionManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+// Event-log storage backend (profile "eventlog"). The datasource, JPA and Flyway are
+// switched off in application-eventlog.properties and the repositories in
+// repository.eventlog take the place of the Spring Data ones.
+@Configuration
+@Profile("eventlog")
+public class EventLogConfig {
+    
+    @Bean
+    public PlatformTransactionManager transactionManager(EventLogStore store) {
+        return new EventLogTransactionManager(store);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.SoloFocus.io.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.time.Duration;
+
+// Production static assets. Templates link them with @{...}, which the resource chain
+// (application-production.properties) rewrites to content-hashed names such as
+// /css/style-<md5>.css. Content at a hashed name never changes, so those are cached for a
+// year without revalidation. Requests by the plain name fall through to Spring Boot's
+// default handler and are revalidated as usual.
+@Configuration
+@Profile("production")
+public class StaticResourceConfig implements WebMvcConfigurer {
+    
+    // A file name ending in the 32 hex digits of the MD5 the content strategy appends
+    private static final String HASHED_FILE = "{file:[\\w.-]+-[0-9a-f]{32}\\.\\w+}";
+    
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String directory : new String[] {"css", "js"}) {
+            registry.addResourceHandler("/" + directory + "/" + HASHED_FILE)
+                    .addResourceLocations("classpath:/static/" + directory + "/")
+                    .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                    .resourceChain(true)
+                    // Serves a precompressed .br or .gz sibling when the client accepts it
+                    .addResolver(new EncodedResourceResolver())
+                    // Strips the hash and checks it against the content, so a stale name is a 404
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.SoloFocus.io.controller;
 
+import com.example.SoloFocus.io.auth.Authenticator;
 import com.example.SoloFocus.io.dto.UserLoginDTO;
 import com.example.SoloFocus.io.dto.UserRegistrationDTO;
 import com.example.SoloFocus.io.model.User;
 import com.example.SoloFocus.io.service.UserService;
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -22,6 +24,9 @@ public class AuthController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private Authenticator authenticator;
+    
     @GetMapping("/login")
     public String showLoginPage(Model model) {
         if (!model.containsAttribute("userLogin")) {
@@ -32,7 +37,8 @@ public class AuthController {
     
     @PostMapping("/login")
     public String login(@Valid UserLoginDTO userLogin, BindingResult result,
-                       HttpSession session, RedirectAttributes redirectAttributes) {
+                       HttpServletRequest request, HttpServletResponse response,
+                       RedirectAttributes redirectAttributes) {
         if (result.hasErrors()) {
             redirectAttributes.addFlashAttribute("org.springframework.validation.BindingResult.userLogin", result);
             redirectAttributes.addFlashAttribute("userLogin", userLogin);
@@ -41,8 +47,7 @@ public class AuthController {
         
         try {
             User user = userService.loginUser(userLogin.getUsername(), userLogin.getPassword());
-            session.setAttribute("userId", user.getId());
-            session.setAttribute("username", user.getUsername());
+            authenticator.signIn(request, response, user);
             return "redirect:/timer";
         } catch (RuntimeException e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
@@ -90,8 +95,8 @@ public class AuthController {
     }
     
     @GetMapping("/logout")
-    public String logout(HttpSession session) {
-        session.invalidate();
+    public String logout(HttpServletRequest request, HttpServletResponse response) {
+        authenticator.signOut(request, response);
         return "redirect:/auth/login";
     }
 }
@@ -1,16 +1,25 @@
 package com.example.SoloFocus.io.controller;
 
+import com.example.SoloFocus.io.auth.Authenticator;
+import com.example.SoloFocus.io.dto.DashboardDataDTO;
+import com.example.SoloFocus.io.dto.DashboardSnapshot;
+import com.example.SoloFocus.io.service.DashboardCacheInvalidator;
+import com.example.SoloFocus.io.service.DashboardUpdatePublisher;
+import com.example.SoloFocus.io.service.LeaderboardService;
 import com.example.SoloFocus.io.service.StatisticsService;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
-
-import java.util.HashMap;
-import java.util.Map;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Controller
 @RequestMapping("/dashboard")
@@ -19,35 +28,32 @@ public class DashboardController {
     @Autowired
     private StatisticsService statisticsService;
     
+    @Autowired
+    private DashboardCacheInvalidator dashboardCacheInvalidator;
+    
+    @Autowired
+    private DashboardUpdatePublisher dashboardUpdatePublisher;
+    
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
     @GetMapping
-    public String showDashboard(HttpSession session, Model model) {
-        Long userId = (Long) session.getAttribute("userId");
+    public String showDashboard(@RequestAttribute(name = Authenticator.USER_ID, required = false) Long userId, Model model) {
         if (userId == null) {
             return "redirect:/auth/login";
         }
         
         try {
-            // Always refresh statistics before displaying dashboard
-            statisticsService.updateUserStatistics(userId);
-            
-            // Get all statistics
-            Map<String, Object> stats = statisticsService.getDashboardStatistics(userId);
-            Map<String, Integer> weeklyData = statisticsService.getWeeklyStatistics(userId);
-            Map<String, Integer> monthlyData = statisticsService.getMonthlyStatistics(userId);
-            Map<String, Integer> yearlyData = statisticsService.getYearlyStatistics(userId);
-            Map<String, Integer> contributionData = statisticsService.getContributionData(userId);
+            // All dashboard figures come from a single aggregation pass
+            DashboardSnapshot snapshot = statisticsService.getDashboardSnapshot(userId);
             
             // Add basic stats
-            model.addAttribute("totalHours", stats.get("totalHours") != null ? stats.get("totalHours") : 0.0);
-            model.addAttribute("currentStreak", stats.get("currentStreak") != null ? stats.get("currentStreak") : 0);
-            model.addAttribute("maxStreak", stats.get("maxStreak") != null ? stats.get("maxStreak") : 0);
-            model.addAttribute("lastSessionTime", stats.get("lastSessionTime"));
+            model.addAttribute("totalHours", snapshot.getTotalHours());
+            model.addAttribute("currentStreak", snapshot.getCurrentStreak());
+            model.addAttribute("maxStreak", snapshot.getMaxStreak());
+            model.addAttribute("lastSessionTime", snapshot.getLastSessionTime());
             
-            // Add chart data as both raw maps (for Thymeleaf inline JS) and JSON strings (backup)
-            model.addAttribute("weeklyData", weeklyData != null ? weeklyData : new HashMap<>());
-            model.addAttribute("monthlyData", monthlyData != null ? monthlyData : new HashMap<>());
-            model.addAttribute("yearlyData", yearlyData != null ? yearlyData : new HashMap<>());
-            model.addAttribute("contributionData", contributionData != null ? contributionData : new HashMap<>());
+            // Chart series are fetched by dashboard.js from /dashboard/data
             
         } catch (Exception e) {
             e.printStackTrace();
@@ -56,12 +62,55 @@ public class DashboardController {
             model.addAttribute("currentStreak", 0);
             model.addAttribute("maxStreak", 0);
             model.addAttribute("lastSessionTime", null);
-            model.addAttribute("weeklyData", new HashMap<>());
-            model.addAttribute("monthlyData", new HashMap<>());
-            model.addAttribute("yearlyData", new HashMap<>());
-            model.addAttribute("contributionData", new HashMap<>());
         }
         
         return "dashboard";
     }
+    
+    @GetMapping("/data")
+    @ResponseBody
+    public ResponseEntity<DashboardDataDTO> getDashboardData(@RequestAttribute(name = Authenticator.USER_ID, required = false) Long userId, WebRequest webRequest) {
+        if (userId == null) {
+            return ResponseEntity.status(401).build();
+        }
+        
+        // Revalidation only reads the statistics version; the 304 is sent without aggregating
+        if (webRequest.checkNotModified(statisticsService.getDashboardETag(userId))) {
+            return null;
+        }
+        
+        // The tag comes from the snapshot itself, so a stale cached snapshot never gets a newer tag
+        DashboardSnapshot snapshot = statisticsService.getDashboardSnapshot(userId);
+        return ResponseEntity.ok()
+                .eTag(StatisticsService.dashboardETag(userId, snapshot))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(new DashboardDataDTO(snapshot));
+    }
+    
+    // Server-sent events: a "stats" event whenever the user's statistics change
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public ResponseEntity<SseEmitter> streamUpdates(@RequestAttribute(name = Authenticator.USER_ID, required = false) Long userId) {
+        if (userId == null) {
+            return ResponseEntity.status(401).build();
+        }
+        
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(dashboardUpdatePublisher.subscribe(userId));
+    }
+    
+    @PostMapping("/recalculate")
+    public String recalculateStatistics(@RequestAttribute(name = Authenticator.USER_ID, required = false) Long userId) {
+        if (userId == null) {
+            return "redirect:/auth/login";
+        }
+        
+        // Explicit repair: rebuild stored statistics from the full session history
+        statisticsService.updateUserStatistics(userId);
+        statisticsService.rebuildDailyFocus(userId);
+        dashboardCacheInvalidator.evict(userId);
+        leaderboardService.refresh(userId, null);
+        return "redirect:/dashboard";
+    }
 }
\ No newline at end of file
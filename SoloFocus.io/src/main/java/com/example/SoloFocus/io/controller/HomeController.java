@@ -1,15 +1,15 @@
 package com.example.SoloFocus.io.controller;
 
-import jakarta.servlet.http.HttpSession;
+import com.example.SoloFocus.io.auth.Authenticator;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 
 @Controller
 public class HomeController {
     
     @GetMapping("/")
-    public String home(HttpSession session) {
-        Long userId = (Long) session.getAttribute("userId");
+    public String home(@RequestAttribute(name = Authenticator.USER_ID, required = false) Long userId) {
         if (userId != null) {
             return "redirect:/timer";
         }
@@ -0,0 +1,47 @@
+package com.example.SoloFocus.io.controller;
+
+import com.example.SoloFocus.io.auth.Authenticator;
+import com.example.SoloFocus.io.dto.LeaderboardDTO;
+import com.example.SoloFocus.io.service.LeaderboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/leaderboard")
+public class LeaderboardController {
+    
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
+    // board is total, streak or week
+    @GetMapping
+    public ResponseEntity<LeaderboardDTO> getLeaderboard(@RequestParam(defaultValue = "total") String board,
+                                                         @RequestParam(defaultValue = "10") int limit,
+                                                         @RequestAttribute(name = Authenticator.USER_ID, required = false) Long userId) {
+        if (userId == null) {
+            return ResponseEntity.status(401).build();
+        }
+        
+        LeaderboardService.Board selected;
+        try {
+            selected = LeaderboardService.Board.from(board);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // Still loading after startup; the ranks would be incomplete
+        if (!leaderboardService.isLoaded()) {
+            return ResponseEntity.status(503).header("Retry-After", "5").build();
+        }
+        
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(leaderboardService.getLeaderboard(selected, userId, limit));
+    }
+}
@@ -1,15 +1,27 @@
 package com.example.SoloFocus.io.controller;
 
+import com.example.SoloFocus.io.auth.Authenticator;
+import com.example.SoloFocus.io.dto.SessionBatchDTO;
+import com.example.SoloFocus.io.dto.SessionPageDTO;
+import com.example.SoloFocus.io.model.ActiveSession;
 import com.example.SoloFocus.io.model.FocusSession;
 import com.example.SoloFocus.io.service.FocusSessionService;
-import jakarta.servlet.http.HttpSession;
+import com.example.SoloFocus.io.service.SessionExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Controller
@@ -19,9 +31,11 @@ public class TimerController {
     @Autowired
     private FocusSessionService focusSessionService;
     
+    @Autowired
+    private SessionExportService sessionExportService;
+    
     @GetMapping
-    public String showTimerPage(HttpSession session, Model model) {
-        Long userId = (Long) session.getAttribute("userId");
+    public String showTimerPage(@RequestAttribute(name = Authenticator.USER_ID, required = false) Long userId, Model model) {
         if (userId == null) {
             return "redirect:/auth/login";
         }
@@ -32,19 +46,18 @@ public class TimerController {
     @ResponseBody
     public ResponseEntity<Map<String, Object>> startSession(
             @RequestParam String sessionType,
-            HttpSession session) {
-        Long userId = (Long) session.getAttribute("userId");
+            @RequestAttribute(name = Authenticator.USER_ID, required = false) Long userId) {
         if (userId == null) {
             Map<String, Object> error = new HashMap<>();
             error.put("error", "Not authenticated");
             return ResponseEntity.status(401).body(error);
         }
         
-        FocusSession focusSession = focusSessionService.startSession(userId, sessionType);
+        ActiveSession activeSession = focusSessionService.startSession(userId, sessionType);
         
         Map<String, Object> response = new HashMap<>();
-        response.put("sessionId", focusSession.getId());
-        response.put("startTime", focusSession.getStartTime().toString());
+        response.put("sessionId", focusSessionService.getSessionId(activeSession));
+        response.put("startTime", activeSession.getStartTime().toString());
         
         return ResponseEntity.ok(response);
     }
@@ -52,17 +65,16 @@ public class TimerController {
     @PostMapping("/end")
     @ResponseBody
     public ResponseEntity<Map<String, Object>> endSession(
-            @RequestParam Long sessionId,
+            @RequestParam String sessionId,
             @RequestParam Integer durationMinutes,
-            HttpSession session) {
-        Long userId = (Long) session.getAttribute("userId");
+            @RequestAttribute(name = Authenticator.USER_ID, required = false) Long userId) {
         if (userId == null) {
             Map<String, Object> error = new HashMap<>();
             error.put("error", "Not authenticated");
             return ResponseEntity.status(401).body(error);
         }
         
-        FocusSession focusSession = focusSessionService.endSession(sessionId, durationMinutes);
+        FocusSession focusSession = focusSessionService.endSession(userId, sessionId, durationMinutes);
         
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -71,5 +83,85 @@ public class TimerController {
         
         return ResponseEntity.ok(response);
     }
+    
+    // Sessions timed while the client was offline, uploaded together once it reconnects
+    @PostMapping("/sessions/batch")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> recordSessions(
+            @Valid @RequestBody SessionBatchDTO batch,
+            @RequestAttribute(name = Authenticator.USER_ID, required = false) Long userId) {
+        if (userId == null) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Not authenticated");
+            return ResponseEntity.status(401).body(error);
+        }
+        
+        List<FocusSession> sessions = focusSessionService.recordSessions(userId, batch.getSessions());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("count", sessions.size());
+        response.put("sessionIds", sessions.stream().map(FocusSession::getId).toList());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    // Session history one page at a time; pass nextCursor back as cursor for the next page
+    @GetMapping("/sessions")
+    @ResponseBody
+    public ResponseEntity<SessionPageDTO> getSessionHistory(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestAttribute(name = Authenticator.USER_ID, required = false) Long userId) {
+        if (userId == null) {
+            return ResponseEntity.status(401).build();
+        }
+        
+        FocusSessionService.HistoryCursor after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                after = FocusSessionService.HistoryCursor.from(cursor);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        
+        return ResponseEntity.ok(focusSessionService.getSessionHistory(userId, type, from, to, after, limit));
+    }
+    
+    // The full session history as CSV or NDJSON, written to the response while it is read
+    @GetMapping("/sessions/export")
+    public void exportSessions(@RequestParam(defaultValue = "csv") String format,
+                               @RequestAttribute(name = Authenticator.USER_ID, required = false) Long userId,
+                               HttpServletResponse response) throws IOException {
+        if (userId == null) {
+            response.sendError(401);
+            return;
+        }
+        
+        SessionExportService.Format selected;
+        try {
+            selected = SessionExportService.Format.from(format);
+        } catch (RuntimeException e) {
+            response.sendError(400, e.getMessage());
+            return;
+        }
+        
+        // Sessions before this day were archived into daily totals and are not in the file
+        LocalDate archivedBefore = focusSessionService.getArchivedBefore();
+        if (archivedBefore != null) {
+            response.setHeader("X-Archived-Before", archivedBefore.toString());
+        }
+        
+        boolean csv = selected == SessionExportService.Format.CSV;
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(csv ? "focus-sessions.csv" : "focus-sessions.ndjson")
+                .build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        sessionExportService.export(userId, selected, response.getOutputStream());
+    }
 }
-
@@ -0,0 +1,76 @@
+package com.example.SoloFocus.io.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Reserves blocks of ids in id_generators on a small pool of its own, always against the
+// primary, and commits each reservation at once. Transactions waiting for ids hold connections
+// from the main pool only, so however full that pool gets, the reservation can still run.
+@Component
+@Profile("!eventlog")
+public class IdBlockAllocator {
+    
+    // The rows were seeded for this block size (V6); it cannot change without reseeding them
+    static final int BLOCK_SIZE = 50;
+    
+    private final HikariDataSource dataSource;
+    
+    public IdBlockAllocator(DataSourceProperties properties,
+                            @Value("${solofocus.datasource.id-pool-size:2}") int poolSize,
+                            MeterRegistry meterRegistry) {
+        this.dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("id-generators");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(0);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+    
+    // Returns the highest id of the reserved block; the block is the BLOCK_SIZE ids up to it
+    public long reserve(String sequenceName) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                long highest;
+                try (PreparedStatement select = connection.prepareStatement(
+                        "SELECT next_val FROM id_generators WHERE sequence_name = ? FOR UPDATE")) {
+                    select.setString(1, sequenceName);
+                    try (ResultSet rs = select.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new RuntimeException("No id_generators row for " + sequenceName);
+                        }
+                        highest = rs.getLong(1);
+                    }
+                }
+                try (PreparedStatement update = connection.prepareStatement(
+                        "UPDATE id_generators SET next_val = ? WHERE sequence_name = ?")) {
+                    update.setLong(1, highest + BLOCK_SIZE);
+                    update.setString(2, sequenceName);
+                    update.executeUpdate();
+                }
+                connection.commit();
+                return highest;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not reserve ids for " + sequenceName, e);
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.SoloFocus.io.datasource;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.resource.beans.spi.ManagedBeanRegistry;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+// Hands out the ids of one block at a time. Blocks come from IdBlockAllocator, which never
+// needs a connection from the pool the inserting transaction already holds one of.
+public class PooledIdGenerator implements BeforeExecutionGenerator {
+    
+    private final String sequenceName;
+    private final IdBlockAllocator allocator;
+    
+    private long next;
+    private long last = -1;
+    
+    public PooledIdGenerator(PooledId config, Member member, CustomIdGeneratorCreationContext context) {
+        this.sequenceName = config.value();
+        this.allocator = context.getServiceRegistry().requireService(ManagedBeanRegistry.class)
+                .getBean(IdBlockAllocator.class).getBeanInstance();
+    }
+    
+    @Override
+    public synchronized Object generate(SharedSessionContractImplementor session, Object owner,
+                                        Object currentValue, EventType eventType) {
+        if (next > last) {
+            last = allocator.reserve(sequenceName);
+            next = last - IdBlockAllocator.BLOCK_SIZE + 1;
+        }
+        return next++;
+    }
+    
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
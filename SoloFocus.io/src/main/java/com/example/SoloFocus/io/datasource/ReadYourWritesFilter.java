@@ -0,0 +1,29 @@
+package com.example.SoloFocus.io.datasource;
+
+import com.example.SoloFocus.io.auth.Authenticator;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Binds the logged-in user, resolved by AuthenticationFilter, to the request thread for ReadYourWritesGuard
+@Component
+@Profile("replicas")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ReadYourWritesGuard.bind((Long) request.getAttribute(Authenticator.USER_ID));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWritesGuard.unbind();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.SoloFocus.io.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Remembers which users wrote recently, so their read-only transactions can be kept on the
+// primary until the replicas have caught up. The user a thread works for is bound per request
+// by ReadYourWritesFilter; work fanned out to other threads keeps it when wrapped with propagate().
+@Component
+public class ReadYourWritesGuard {
+    
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+    
+    private final Cache<Long, Boolean> recentWriters;
+    
+    public ReadYourWritesGuard(@Value("${solofocus.datasource.read-your-writes-seconds:10}") long windowSeconds) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(windowSeconds))
+                .build();
+    }
+    
+    public void recordWrite(Long userId) {
+        if (userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+    
+    public boolean wroteRecently(Long userId) {
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+    
+    public static void bind(Long userId) {
+        CURRENT_USER.set(userId);
+    }
+    
+    public static void unbind() {
+        CURRENT_USER.remove();
+    }
+    
+    public static Long currentUser() {
+        return CURRENT_USER.get();
+    }
+    
+    // Usable as a TaskDecorator: the task runs for the submitting thread's user
+    public static Runnable propagate(Runnable task) {
+        Long userId = CURRENT_USER.get();
+        if (userId == null) {
+            return task;
+        }
+        return () -> {
+            Long previous = CURRENT_USER.get();
+            CURRENT_USER.set(userId);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    CURRENT_USER.set(previous);
+                } else {
+                    CURRENT_USER.remove();
+                }
+            }
+        };
+    }
+}
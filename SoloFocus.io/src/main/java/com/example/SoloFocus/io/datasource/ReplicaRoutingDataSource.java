@@ -0,0 +1,94 @@
+package com.example.SoloFocus.io.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends read-only transactions to the replicas in turn and everything else to the primary.
+// It has to sit behind a LazyConnectionDataSourceProxy: the transaction's read-only flag is
+// only set after it begins, so the connection must not be fetched until the first statement.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    
+    private static final String PRIMARY = "primary";
+    
+    private final List<DataSource> replicas;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<Object, Counter> routed = new HashMap<>();
+    private final Counter guarded;
+    
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                    ReadYourWritesGuard readYourWritesGuard, MeterRegistry meterRegistry) {
+        this.replicas = new ArrayList<>(replicas);
+        this.readYourWritesGuard = readYourWritesGuard;
+        
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        
+        for (Object key : targets.keySet()) {
+            String target = PRIMARY.equals(key) ? PRIMARY : "replica-" + key;
+            routed.put(key, Counter.builder("datasource.connections.routed")
+                    .tag("target", target)
+                    .register(meterRegistry));
+        }
+        guarded = Counter.builder("datasource.read.your.writes")
+                .description("Read-only transactions kept on the primary because the user wrote recently")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Object key = lookupKey();
+        routed.get(key).increment();
+        return key;
+    }
+    
+    private Object lookupKey() {
+        Long userId = ReadYourWritesGuard.currentUser();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (replicas.isEmpty()) {
+                return PRIMARY;
+            }
+            if (readYourWritesGuard.wroteRecently(userId)) {
+                guarded.increment();
+                return PRIMARY;
+            }
+            return Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        }
+        
+        // A committed write starts the user's read-your-writes window
+        if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWritesGuard.recordWrite(userId);
+                }
+            });
+        }
+        return PRIMARY;
+    }
+    
+    // The primary is a bean of its own and is closed by the container
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
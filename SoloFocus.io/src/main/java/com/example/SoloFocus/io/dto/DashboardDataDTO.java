@@ -0,0 +1,63 @@
+package com.example.SoloFocus.io.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+// JSON form of a DashboardSnapshot. Series are sent as a start date plus dense arrays:
+// dailyMinutes[i] is the total for firstDay + i, monthlyMinutes[i] for firstMonth + i.
+public class DashboardDataDTO {
+    
+    private final double totalHours;
+    private final int currentStreak;
+    private final int maxStreak;
+    private final LocalDateTime lastSessionTime;
+    private final LocalDate firstDay;
+    private final int[] dailyMinutes;
+    private final YearMonth firstMonth;
+    private final int[] monthlyMinutes;
+    
+    public DashboardDataDTO(DashboardSnapshot snapshot) {
+        this.totalHours = snapshot.getTotalHours();
+        this.currentStreak = snapshot.getCurrentStreak();
+        this.maxStreak = snapshot.getMaxStreak();
+        this.lastSessionTime = snapshot.getLastSessionTime();
+        this.firstDay = snapshot.getFirstDay();
+        this.dailyMinutes = snapshot.getDailyMinutes();
+        this.firstMonth = YearMonth.from(snapshot.getFirstMonth());
+        this.monthlyMinutes = snapshot.getMonthlyMinutes();
+    }
+    
+    // Getters
+    public double getTotalHours() {
+        return totalHours;
+    }
+    
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+    
+    public int getMaxStreak() {
+        return maxStreak;
+    }
+    
+    public LocalDateTime getLastSessionTime() {
+        return lastSessionTime;
+    }
+    
+    public LocalDate getFirstDay() {
+        return firstDay;
+    }
+    
+    public int[] getDailyMinutes() {
+        return dailyMinutes;
+    }
+    
+    public YearMonth getFirstMonth() {
+        return firstMonth;
+    }
+    
+    public int[] getMonthlyMinutes() {
+        return monthlyMinutes;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.SoloFocus.io.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Pushed to open dashboards after the user's statistics change. The headline figures are
+// current values; days holds the new total for each day that changed, keyed "yyyy-MM-dd".
+// etag is what /dashboard/data would now return, so the page can skip a refetch.
+public class DashboardDeltaDTO {
+    
+    private final String etag;
+    private final double totalHours;
+    private final int currentStreak;
+    private final int maxStreak;
+    private final LocalDateTime lastSessionTime;
+    private final Map<String, Integer> days;
+    
+    public DashboardDeltaDTO(String etag, double totalHours, int currentStreak, int maxStreak,
+                             LocalDateTime lastSessionTime, Map<String, Integer> days) {
+        this.etag = etag;
+        this.totalHours = totalHours;
+        this.currentStreak = currentStreak;
+        this.maxStreak = maxStreak;
+        this.lastSessionTime = lastSessionTime;
+        this.days = days;
+    }
+    
+    // Folds an update that was never sent into this newer one
+    public DashboardDeltaDTO mergeAfter(DashboardDeltaDTO older) {
+        Map<String, Integer> merged = new TreeMap<>(older.days);
+        merged.putAll(days);
+        return new DashboardDeltaDTO(etag, totalHours, currentStreak, maxStreak, lastSessionTime, merged);
+    }
+    
+    // Getters
+    public String getEtag() {
+        return etag;
+    }
+    
+    public double getTotalHours() {
+        return totalHours;
+    }
+    
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+    
+    public int getMaxStreak() {
+        return maxStreak;
+    }
+    
+    public LocalDateTime getLastSessionTime() {
+        return lastSessionTime;
+    }
+    
+    public Map<String, Integer> getDays() {
+        return days;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.SoloFocus.io.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Immutable result of one dashboard aggregation pass. Daily minutes are kept as a
+// dense array covering WINDOW_DAYS days ending today; the chart maps are views over it.
+public final class DashboardSnapshot {
+    
+    // 366 days so the first of the month eleven months back is always covered
+    public static final int WINDOW_DAYS = 366;
+    public static final int MONTHS = 12;
+    
+    private static final DateTimeFormatter MONTH_KEY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+    
+    private final double totalHours;
+    private final int currentStreak;
+    private final int maxStreak;
+    private final LocalDateTime lastSessionTime;
+    private final LocalDate today;
+    private final int[] dailyMinutes;
+    private final int[] monthlyMinutes;
+    private final long statisticsVersion;
+    
+    private final Map<String, Integer> weeklyData;
+    private final Map<String, Integer> monthlyData;
+    private final Map<String, Integer> yearlyData;
+    private final Map<String, Integer> contributionData;
+    
+    public DashboardSnapshot(double totalHours, int currentStreak, int maxStreak, LocalDateTime lastSessionTime,
+                             LocalDate today, int[] dailyMinutes, int[] monthlyMinutes, long statisticsVersion) {
+        if (dailyMinutes.length != WINDOW_DAYS || monthlyMinutes.length != MONTHS) {
+            throw new IllegalArgumentException("Unexpected dashboard window size");
+        }
+        this.totalHours = totalHours;
+        this.currentStreak = currentStreak;
+        this.maxStreak = maxStreak;
+        this.lastSessionTime = lastSessionTime;
+        this.today = today;
+        this.dailyMinutes = dailyMinutes.clone();
+        this.monthlyMinutes = monthlyMinutes.clone();
+        this.statisticsVersion = statisticsVersion;
+        
+        this.weeklyData = lastDays(7);
+        this.monthlyData = lastDays(30);
+        this.contributionData = lastDays(365);
+        
+        Map<String, Integer> months = new LinkedHashMap<>();
+        LocalDate firstMonth = getFirstMonth();
+        for (int i = 0; i < MONTHS; i++) {
+            months.put(firstMonth.plusMonths(i).format(MONTH_KEY_FORMAT), this.monthlyMinutes[i]);
+        }
+        this.yearlyData = Collections.unmodifiableMap(months);
+    }
+    
+    private Map<String, Integer> lastDays(int days) {
+        Map<String, Integer> data = new LinkedHashMap<>();
+        for (int i = WINDOW_DAYS - days; i < WINDOW_DAYS; i++) {
+            data.put(getFirstDay().plusDays(i).toString(), dailyMinutes[i]);
+        }
+        return Collections.unmodifiableMap(data);
+    }
+    
+    public LocalDate getFirstDay() {
+        return today.minusDays(WINDOW_DAYS - 1);
+    }
+    
+    public LocalDate getFirstMonth() {
+        return today.minusMonths(MONTHS - 1).withDayOfMonth(1);
+    }
+    
+    // Getters
+    public double getTotalHours() {
+        return totalHours;
+    }
+    
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+    
+    public int getMaxStreak() {
+        return maxStreak;
+    }
+    
+    public LocalDateTime getLastSessionTime() {
+        return lastSessionTime;
+    }
+    
+    public LocalDate getToday() {
+        return today;
+    }
+    
+    public int[] getDailyMinutes() {
+        return dailyMinutes.clone();
+    }
+    
+    public int[] getMonthlyMinutes() {
+        return monthlyMinutes.clone();
+    }
+    
+    public Map<String, Integer> getWeeklyData() {
+        return weeklyData;
+    }
+    
+    public Map<String, Integer> getMonthlyData() {
+        return monthlyData;
+    }
+    
+    public Map<String, Integer> getYearlyData() {
+        return yearlyData;
+    }
+    
+    public Map<String, Integer> getContributionData() {
+        return contributionData;
+    }
+    
+    // Version of the user's stored statistics this snapshot was built from
+    public long getStatisticsVersion() {
+        return statisticsVersion;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.SoloFocus.io.dto;
+
+import java.util.List;
+
+// One leaderboard page. Scores are minutes for the total and week boards and days for the
+// streak board. Users with equal scores share a rank; myRank is the requesting user's.
+public class LeaderboardDTO {
+    
+    private final String board;
+    private final List<Entry> entries;
+    private final int myRank;
+    private final long myScore;
+    private final int rankedUsers;
+    
+    public LeaderboardDTO(String board, List<Entry> entries, int myRank, long myScore, int rankedUsers) {
+        this.board = board;
+        this.entries = entries;
+        this.myRank = myRank;
+        this.myScore = myScore;
+        this.rankedUsers = rankedUsers;
+    }
+    
+    // Getters
+    public String getBoard() {
+        return board;
+    }
+    
+    public List<Entry> getEntries() {
+        return entries;
+    }
+    
+    public int getMyRank() {
+        return myRank;
+    }
+    
+    public long getMyScore() {
+        return myScore;
+    }
+    
+    public int getRankedUsers() {
+        return rankedUsers;
+    }
+    
+    public static class Entry {
+        
+        private final int rank;
+        private final String username;
+        private final long score;
+        private final boolean me;
+        
+        public Entry(int rank, String username, long score, boolean me) {
+            this.rank = rank;
+            this.username = username;
+            this.score = score;
+            this.me = me;
+        }
+        
+        public int getRank() {
+            return rank;
+        }
+        
+        public String getUsername() {
+            return username;
+        }
+        
+        public long getScore() {
+            return score;
+        }
+        
+        public boolean isMe() {
+            return me;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.SoloFocus.io.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class SessionBatchDTO {
+    
+    @NotEmpty(message = "At least one session is required")
+    @Size(max = 1000, message = "At most 1000 sessions per batch")
+    private List<@Valid SessionRecordDTO> sessions;
+    
+    public SessionBatchDTO() {
+    }
+    
+    public List<SessionRecordDTO> getSessions() {
+        return sessions;
+    }
+    
+    public void setSessions(List<SessionRecordDTO> sessions) {
+        this.sessions = sessions;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.SoloFocus.io.dto;
+
+import java.time.LocalDateTime;
+
+// One line of a session export. Read straight from the query, so no entity is ever managed.
+public class SessionExportDTO {
+    
+    private final Long id;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final Integer durationMinutes;
+    private final String sessionType;
+    private final LocalDateTime createdAt;
+    
+    public SessionExportDTO(Long id, LocalDateTime startTime, LocalDateTime endTime,
+                            Integer durationMinutes, String sessionType, LocalDateTime createdAt) {
+        this.id = id;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.durationMinutes = durationMinutes;
+        this.sessionType = sessionType;
+        this.createdAt = createdAt;
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+    
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+    
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+    
+    public String getSessionType() {
+        return sessionType;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
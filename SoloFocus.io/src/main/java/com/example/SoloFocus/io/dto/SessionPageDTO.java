@@ -0,0 +1,35 @@
+package com.example.SoloFocus.io.dto;
+
+import com.example.SoloFocus.io.repository.projection.SessionSummary;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// One page of session history, newest first. nextCursor is passed back to read the
+// following page and is null on the last one. archivedBefore is set when the requested
+// range reaches into archived days, whose sessions are no longer listed.
+public class SessionPageDTO {
+    
+    private final List<SessionSummary> sessions;
+    private final String nextCursor;
+    private final LocalDate archivedBefore;
+    
+    public SessionPageDTO(List<SessionSummary> sessions, String nextCursor, LocalDate archivedBefore) {
+        this.sessions = sessions;
+        this.nextCursor = nextCursor;
+        this.archivedBefore = archivedBefore;
+    }
+    
+    // Getters
+    public List<SessionSummary> getSessions() {
+        return sessions;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public LocalDate getArchivedBefore() {
+        return archivedBefore;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.SoloFocus.io.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PastOrPresent;
+import java.time.LocalDateTime;
+
+// A finished session recorded by the client, e.g. one timed while offline
+public class SessionRecordDTO {
+    
+    public static final int MAX_DURATION_MINUTES = 24 * 60;
+    
+    @NotBlank(message = "Session type is required")
+    private String sessionType;
+    
+    // A future start would also push lastSessionTime ahead and keep the streak from ever expiring
+    @NotNull(message = "Start time is required")
+    @PastOrPresent(message = "Start time cannot be in the future")
+    private LocalDateTime startTime;
+    
+    // Optional; defaults to startTime + durationMinutes
+    @PastOrPresent(message = "End time cannot be in the future")
+    private LocalDateTime endTime;
+    
+    // Capped at the 24 hours a running session may last (solofocus.sessions.max-age-hours)
+    @NotNull(message = "Duration is required")
+    @Min(value = 0, message = "Duration cannot be negative")
+    @Max(value = MAX_DURATION_MINUTES, message = "Duration cannot exceed 24 hours")
+    private Integer durationMinutes;
+    
+    public SessionRecordDTO() {
+    }
+    
+    public String getSessionType() {
+        return sessionType;
+    }
+    
+    public void setSessionType(String sessionType) {
+        this.sessionType = sessionType;
+    }
+    
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+    
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+    
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+    
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+    
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+    
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+    
+    @JsonIgnore
+    @AssertTrue(message = "End time cannot be before start time")
+    public boolean isEndTimeAfterStartTime() {
+        return endTime == null || startTime == null || !endTime.isBefore(startTime);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.SoloFocus.io.event;
+
+// Published when a focus session has been ended; listeners run once the session row is committed
+public class SessionCompletedEvent {
+    
+    private final Long userId;
+    private final Long sessionId;
+    private final Integer durationMinutes;
+    private final Integer previousMinutes;
+    
+    public SessionCompletedEvent(Long userId, Long sessionId, Integer durationMinutes, Integer previousMinutes) {
+        this.userId = userId;
+        this.sessionId = sessionId;
+        this.durationMinutes = durationMinutes;
+        this.previousMinutes = previousMinutes;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public Long getSessionId() {
+        return sessionId;
+    }
+    
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+    
+    // Duration already counted for this session if it had been ended before, otherwise null
+    public Integer getPreviousMinutes() {
+        return previousMinutes;
+    }
+}
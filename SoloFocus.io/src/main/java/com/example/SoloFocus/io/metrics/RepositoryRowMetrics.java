@@ -0,0 +1,65 @@
+package com.example.SoloFocus.io.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+// Adds an interceptor to every Spring Data repository that records how many rows
+// each query method returned (repository.rows.hydrated, tagged by repository and method)
+@Component
+public class RepositoryRowMetrics implements BeanPostProcessor {
+    
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    
+    public RepositoryRowMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, information) -> proxyFactory.addAdvice(
+                            rowCounter(information.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+    
+    private MethodInterceptor rowCounter(String repository) {
+        return invocation -> {
+            Object result = invocation.proceed();
+            Class<?> returnType = invocation.getMethod().getReturnType();
+            if (!returnType.isPrimitive()) {
+                DistributionSummary.builder("repository.rows.hydrated")
+                        .tags("repository", repository, "method", invocation.getMethod().getName())
+                        .register(meterRegistry.getObject())
+                        .record(countRows(result));
+            }
+            return result;
+        };
+    }
+    
+    private static int countRows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.SoloFocus.io.metrics;
+
+import org.hibernate.SessionEventListener;
+
+// Registered through hibernate.session.events.auto; Hibernate creates one per session
+public class SqlStatementListener implements SessionEventListener {
+    
+    private long executeStart;
+    private long batchStart;
+    
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementStats.record(System.nanoTime() - executeStart);
+    }
+    
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementStats.record(System.nanoTime() - batchStart);
+    }
+}
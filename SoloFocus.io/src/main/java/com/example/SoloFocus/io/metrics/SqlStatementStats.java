@@ -0,0 +1,64 @@
+package com.example.SoloFocus.io.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Tally of JDBC statements Hibernate executed for the request in flight. Work the request
+// fans out to other threads is included when the task is wrapped with propagate().
+public final class SqlStatementStats {
+    
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+    
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong nanos = new AtomicLong();
+    
+    private SqlStatementStats() {
+    }
+    
+    public static SqlStatementStats begin() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+    
+    public static void end() {
+        CURRENT.remove();
+    }
+    
+    // Usable as a TaskDecorator: the task records into the submitting thread's tally
+    public static Runnable propagate(Runnable task) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            SqlStatementStats previous = CURRENT.get();
+            CURRENT.set(stats);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+    
+    static void record(long elapsedNanos) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements.incrementAndGet();
+            stats.nanos.addAndGet(elapsedNanos);
+        }
+    }
+    
+    public int getStatements() {
+        return statements.get();
+    }
+    
+    public long getNanos() {
+        return nanos.get();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.SoloFocus.io.model;
+
+import java.time.LocalDateTime;
+
+// A session that has been started but not ended. It lives in ActiveSessionRegistry and is
+// only written to focus_sessions once it ends. Its id is a negative token, so it can never
+// be mistaken for a persisted session id.
+public final class ActiveSession {
+    
+    private final long token;
+    private final Long userId;
+    private final String sessionType;
+    private final LocalDateTime startTime;
+    
+    public ActiveSession(long token, Long userId, String sessionType, LocalDateTime startTime) {
+        this.token = token;
+        this.userId = userId;
+        this.sessionType = sessionType;
+        this.startTime = startTime;
+    }
+    
+    public long getToken() {
+        return token;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public String getSessionType() {
+        return sessionType;
+    }
+    
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.SoloFocus.io.model;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Compact record of which days a user completed a pomodoro. Bit i of word w marks
+// epoch day originDay + 64 * w + i. originDay is kept a multiple of 64 so the map
+// can grow by whole words in either direction.
+public class ActivityBitmap {
+    
+    private long originDay;
+    private long[] words;
+    
+    public ActivityBitmap() {
+        this(0L, new long[0]);
+    }
+    
+    private ActivityBitmap(long originDay, long[] words) {
+        this.originDay = originDay;
+        this.words = words;
+    }
+    
+    public static ActivityBitmap fromBytes(Long originDay, byte[] bytes) {
+        if (originDay == null || bytes == null || bytes.length == 0) {
+            return new ActivityBitmap();
+        }
+        long[] words = new long[bytes.length / Long.BYTES];
+        ByteBuffer.wrap(bytes).asLongBuffer().get(words);
+        return new ActivityBitmap(originDay, words);
+    }
+    
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES);
+        buffer.asLongBuffer().put(words);
+        return buffer.array();
+    }
+    
+    public long getOriginDay() {
+        return originDay;
+    }
+    
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public void set(LocalDate date) {
+        long day = date.toEpochDay();
+        if (words.length == 0) {
+            originDay = Math.floorDiv(day, 64) * 64;
+            words = new long[1];
+        }
+        
+        long index = day - originDay;
+        if (index < 0) {
+            // Prepend whole words so existing bits keep their positions within a word
+            int extra = (int) ((-index + 63) / 64);
+            long[] grown = new long[words.length + extra];
+            System.arraycopy(words, 0, grown, extra, words.length);
+            words = grown;
+            originDay -= 64L * extra;
+            index = day - originDay;
+        }
+        
+        int word = (int) (index >>> 6);
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, word + 1);
+        }
+        words[word] |= 1L << (index & 63);
+    }
+    
+    public boolean isSet(LocalDate date) {
+        long index = date.toEpochDay() - originDay;
+        if (index < 0 || (index >>> 6) >= words.length) {
+            return false;
+        }
+        return (words[(int) (index >>> 6)] & (1L << (index & 63))) != 0;
+    }
+    
+    public LocalDate lastActiveDay() {
+        for (int w = words.length - 1; w >= 0; w--) {
+            if (words[w] != 0) {
+                int bit = 63 - Long.numberOfLeadingZeros(words[w]);
+                return LocalDate.ofEpochDay(originDay + 64L * w + bit);
+            }
+        }
+        return null;
+    }
+    
+    // Number of consecutive active days ending at (and including) the given date
+    public int runEndingAt(LocalDate date) {
+        long index = date.toEpochDay() - originDay;
+        if (index < 0 || (index >>> 6) >= words.length) {
+            return 0;
+        }
+        
+        int run = 0;
+        int w = (int) (index >>> 6);
+        int bit = (int) (index & 63);
+        while (w >= 0) {
+            // Move the start bit to the top and count the ones below it
+            int ones = Long.numberOfLeadingZeros(~(words[w] << (63 - bit)));
+            run += ones;
+            if (ones < bit + 1) {
+                break;
+            }
+            w--;
+            bit = 63;
+        }
+        return run;
+    }
+    
+    // Longest run of consecutive active days anywhere in the map
+    public int longestRun() {
+        int best = 0;
+        int carry = 0;
+        for (long word : words) {
+            if (word == -1L) {
+                carry += 64;
+                continue;
+            }
+            
+            // Run continuing from the previous word into the low bits of this one
+            best = Math.max(best, carry + Long.numberOfTrailingZeros(~word));
+            
+            // Longest run inside the word: each step shortens every run by one
+            int inner = 0;
+            for (long x = word; x != 0; x &= x << 1) {
+                inner++;
+            }
+            best = Math.max(best, inner);
+            
+            carry = Long.numberOfLeadingZeros(~word);
+        }
+        return Math.max(best, carry);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.SoloFocus.io.model;
 
+import com.example.SoloFocus.io.datasource.PooledId;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -7,8 +8,9 @@ import java.time.LocalDateTime;
 @Table(name = "focus_sessions")
 public class FocusSession {
     
+    // Ids are handed out in blocks of 50 so inserts need no round trip and can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("focus_sessions")
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
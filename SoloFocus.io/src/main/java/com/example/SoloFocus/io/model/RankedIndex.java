@@ -0,0 +1,233 @@
+package com.example.SoloFocus.io.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Order-statistic treap of (score, userId) keys, highest score first and lower id first
+// on ties. Every node stores the size of its subtree, so the position of a key and the
+// key at a position are both found in O(log n). Nodes live in parallel arrays rather
+// than objects, which keeps millions of entries to about 40 bytes each.
+// Not thread-safe; callers guard it with their own lock.
+public class RankedIndex {
+    
+    private static final int NONE = -1;
+    
+    private long[] scores;
+    private long[] ids;
+    private int[] priorities;
+    private int[] left;
+    private int[] right;
+    private int[] sizes;
+    
+    private int root = NONE;
+    private int used;
+    // Removed nodes are chained through left[] and reused before the arrays grow
+    private int free = NONE;
+    private int splitFirst;
+    private int splitSecond;
+    
+    public RankedIndex() {
+        this(1024);
+    }
+    
+    public RankedIndex(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        scores = new long[capacity];
+        ids = new long[capacity];
+        priorities = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        sizes = new int[capacity];
+    }
+    
+    public int size() {
+        return size(root);
+    }
+    
+    public void clear() {
+        root = NONE;
+        used = 0;
+        free = NONE;
+    }
+    
+    public void insert(long score, long id) {
+        int node = allocate(score, id);
+        split(root, score, id);
+        root = merge(merge(splitFirst, node), splitSecond);
+    }
+    
+    // Returns false if the key was not in the index
+    public boolean remove(long score, long id) {
+        int[] removed = new int[] {NONE};
+        root = remove(root, score, id, removed);
+        if (removed[0] == NONE) {
+            return false;
+        }
+        left[removed[0]] = free;
+        free = removed[0];
+        return true;
+    }
+    
+    // Number of keys with a strictly higher score, so equal scores share a rank
+    public int countAbove(long score) {
+        int count = 0;
+        int node = root;
+        while (node != NONE) {
+            if (scores[node] > score) {
+                count += size(left[node]) + 1;
+                node = right[node];
+            } else {
+                node = left[node];
+            }
+        }
+        return count;
+    }
+    
+    // Up to limit keys starting at the given position, as alternating score and id values
+    public long[] range(int offset, int limit) {
+        int count = Math.max(0, Math.min(limit, size() - offset));
+        long[] result = new long[count * 2];
+        if (count == 0) {
+            return result;
+        }
+        
+        // Walk down to the node at offset, remembering where the in-order walk resumes
+        int[] stack = new int[64];
+        int depth = 0;
+        int node = root;
+        int skip = offset;
+        while (node != NONE) {
+            int leftSize = size(left[node]);
+            if (skip < leftSize) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = left[node];
+            } else if (skip == leftSize) {
+                break;
+            } else {
+                skip -= leftSize + 1;
+                node = right[node];
+            }
+        }
+        
+        for (int i = 0; i < count; i++) {
+            result[i * 2] = scores[node];
+            result[i * 2 + 1] = ids[node];
+            
+            // In-order successor: leftmost node of the right subtree, else the nearest ancestor
+            node = right[node];
+            while (node != NONE) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = left[node];
+            }
+            if (depth > 0) {
+                node = stack[--depth];
+            }
+        }
+        return result;
+    }
+    
+    private int allocate(long score, long id) {
+        int node;
+        if (free != NONE) {
+            node = free;
+            free = left[node];
+        } else {
+            if (used == scores.length) {
+                grow();
+            }
+            node = used++;
+        }
+        scores[node] = score;
+        ids[node] = id;
+        priorities[node] = ThreadLocalRandom.current().nextInt();
+        left[node] = NONE;
+        right[node] = NONE;
+        sizes[node] = 1;
+        return node;
+    }
+    
+    private void grow() {
+        int capacity = scores.length + (scores.length >> 1);
+        scores = Arrays.copyOf(scores, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+    }
+    
+    private boolean before(long score, long id, int node) {
+        return score > scores[node] || (score == scores[node] && id < ids[node]);
+    }
+    
+    // Splits the subtree into the keys ordered before (score, id) and the rest, leaving
+    // the two roots in splitFirst and splitSecond
+    private void split(int node, long score, long id) {
+        if (node == NONE) {
+            splitFirst = NONE;
+            splitSecond = NONE;
+            return;
+        }
+        if (!before(score, id, node)) {
+            // The node sorts before the key, so it and its left subtree go to the first part
+            split(right[node], score, id);
+            right[node] = splitFirst;
+            update(node);
+            splitFirst = node;
+        } else {
+            split(left[node], score, id);
+            left[node] = splitSecond;
+            update(node);
+            splitSecond = node;
+        }
+    }
+    
+    // Joins two subtrees where every key of the first sorts before every key of the second
+    private int merge(int first, int second) {
+        if (first == NONE) {
+            return second;
+        }
+        if (second == NONE) {
+            return first;
+        }
+        if (priorities[first] > priorities[second]) {
+            right[first] = merge(right[first], second);
+            update(first);
+            return first;
+        }
+        left[second] = merge(first, left[second]);
+        update(second);
+        return second;
+    }
+    
+    private int remove(int node, long score, long id, int[] removed) {
+        if (node == NONE) {
+            return NONE;
+        }
+        if (scores[node] == score && ids[node] == id) {
+            removed[0] = node;
+            return merge(left[node], right[node]);
+        }
+        if (before(score, id, node)) {
+            left[node] = remove(left[node], score, id, removed);
+        } else {
+            right[node] = remove(right[node], score, id, removed);
+        }
+        update(node);
+        return node;
+    }
+    
+    private void update(int node) {
+        sizes[node] = size(left[node]) + size(right[node]) + 1;
+    }
+    
+    private int size(int node) {
+        return node == NONE ? 0 : sizes[node];
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.SoloFocus.io.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// A completed archival run. Sessions before archivedBefore now live only in user_daily_focus.
+@Entity
+@Table(name = "session_archive_runs")
+public class SessionArchiveRun {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "archived_before", nullable = false)
+    private LocalDate archivedBefore;
+    
+    @Column(name = "users_compacted", nullable = false)
+    private Integer usersCompacted;
+    
+    @Column(name = "sessions_removed", nullable = false)
+    private Long sessionsRemoved;
+    
+    @Column(name = "partitions_dropped", nullable = false)
+    private Integer partitionsDropped;
+    
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+    
+    // Constructors
+    public SessionArchiveRun() {
+    }
+    
+    // Recorded once the rollup is rebuilt; the removal counts are filled in afterwards
+    public SessionArchiveRun(LocalDate archivedBefore, Integer usersCompacted) {
+        this.archivedBefore = archivedBefore;
+        this.usersCompacted = usersCompacted;
+        this.sessionsRemoved = 0L;
+        this.partitionsDropped = 0;
+        this.completedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public LocalDate getArchivedBefore() {
+        return archivedBefore;
+    }
+    
+    public Integer getUsersCompacted() {
+        return usersCompacted;
+    }
+    
+    public Long getSessionsRemoved() {
+        return sessionsRemoved;
+    }
+    
+    public void setSessionsRemoved(Long sessionsRemoved) {
+        this.sessionsRemoved = sessionsRemoved;
+    }
+    
+    public Integer getPartitionsDropped() {
+        return partitionsDropped;
+    }
+    
+    public void setPartitionsDropped(Integer partitionsDropped) {
+        this.partitionsDropped = partitionsDropped;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+}
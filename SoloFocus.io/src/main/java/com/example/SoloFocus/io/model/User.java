@@ -1,19 +1,26 @@
 package com.example.SoloFocus.io.model;
 
+import com.example.SoloFocus.io.datasource.PooledId;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+// Held in the "users" second-level cache region; saves update the entry when they commit
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 public class User {
     
+    // Ids are handed out in blocks of 50 so inserts need no round trip and can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("users")
     private Long id;
     
     @NotBlank(message = "Username is required")
@@ -46,6 +53,18 @@ public class User {
     @Column(name = "total_focus_hours")
     private Double totalFocusHours = 0.0;
     
+    // Day-activity bitmap backing the streak figures, see ActivityBitmap
+    @Column(name = "activity_origin_day")
+    private Long activityOriginDay;
+    
+    @Lob
+    @Column(name = "activity_bitmap", columnDefinition = "BLOB")
+    private byte[] activityBitmap;
+    
+    // Bumped whenever the stored statistics change; the dashboard ETag is derived from it
+    @Column(name = "statistics_version", nullable = false)
+    private Long statisticsVersion = 0L;
+    
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<FocusSession> focusSessions = new ArrayList<>();
     
@@ -137,6 +156,30 @@ public class User {
         this.totalFocusHours = totalFocusHours;
     }
     
+    public Long getActivityOriginDay() {
+        return activityOriginDay;
+    }
+    
+    public void setActivityOriginDay(Long activityOriginDay) {
+        this.activityOriginDay = activityOriginDay;
+    }
+    
+    public byte[] getActivityBitmap() {
+        return activityBitmap;
+    }
+    
+    public void setActivityBitmap(byte[] activityBitmap) {
+        this.activityBitmap = activityBitmap;
+    }
+    
+    public Long getStatisticsVersion() {
+        return statisticsVersion;
+    }
+    
+    public void setStatisticsVersion(Long statisticsVersion) {
+        this.statisticsVersion = statisticsVersion;
+    }
+    
     public List<FocusSession> getFocusSessions() {
         return focusSessions;
     }
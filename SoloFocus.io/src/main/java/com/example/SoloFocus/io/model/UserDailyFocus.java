@@ -0,0 +1,80 @@
+package com.example.SoloFocus.io.model;
+
+import com.example.SoloFocus.io.datasource.PooledId;
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "user_daily_focus",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "focus_date"}))
+public class UserDailyFocus {
+    
+    @Id
+    @PooledId("user_daily_focus")
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(name = "focus_date", nullable = false)
+    private LocalDate focusDate;
+    
+    @Column(name = "pomodoro_minutes", nullable = false)
+    private Integer pomodoroMinutes = 0;
+    
+    @Column(name = "session_count", nullable = false)
+    private Integer sessionCount = 0;
+    
+    // Constructors
+    public UserDailyFocus() {
+    }
+    
+    public UserDailyFocus(User user, LocalDate focusDate, Integer pomodoroMinutes, Integer sessionCount) {
+        this.user = user;
+        this.focusDate = focusDate;
+        this.pomodoroMinutes = pomodoroMinutes;
+        this.sessionCount = sessionCount;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public User getUser() {
+        return user;
+    }
+    
+    public void setUser(User user) {
+        this.user = user;
+    }
+    
+    public LocalDate getFocusDate() {
+        return focusDate;
+    }
+    
+    public void setFocusDate(LocalDate focusDate) {
+        this.focusDate = focusDate;
+    }
+    
+    public Integer getPomodoroMinutes() {
+        return pomodoroMinutes;
+    }
+    
+    public void setPomodoroMinutes(Integer pomodoroMinutes) {
+        this.pomodoroMinutes = pomodoroMinutes;
+    }
+    
+    public Integer getSessionCount() {
+        return sessionCount;
+    }
+    
+    public void setSessionCount(Integer sessionCount) {
+        this.sessionCount = sessionCount;
+    }
+}
@@ -1,14 +1,27 @@
 package com.example.SoloFocus.io.repository;
 
+import com.example.SoloFocus.io.dto.SessionExportDTO;
 import com.example.SoloFocus.io.model.FocusSession;
 import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.repository.projection.DailyFocusTotal;
+import com.example.SoloFocus.io.repository.projection.HourlyFocusTotal;
+import com.example.SoloFocus.io.repository.projection.MonthlyFocusTotal;
+import com.example.SoloFocus.io.repository.projection.SessionSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface FocusSessionRepository extends JpaRepository<FocusSession, Long> {
@@ -17,13 +30,90 @@ public interface FocusSessionRepository extends JpaRepository<FocusSession, Long
     
     List<FocusSession> findByUserAndStartTimeBetween(User user, LocalDateTime start, LocalDateTime end);
     
+    // Every session of the user in start order, streamed row by row. Must be read inside a
+    // transaction and closed. Integer.MIN_VALUE is MySQL's signal to stream the result instead
+    // of buffering all of it, on any connection; nothing else may run on it until it is closed.
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT new com.example.SoloFocus.io.dto.SessionExportDTO(f.id, f.startTime, f.endTime, " +
+           "f.durationMinutes, f.sessionType, f.createdAt) " +
+           "FROM FocusSession f WHERE f.user.id = :userId ORDER BY f.startTime, f.id")
+    Stream<SessionExportDTO> streamExportByUserId(@Param("userId") Long userId);
+    
+    // One page of history, newest first, taken from below the (beforeStart, beforeId) key.
+    // The first page passes the end of the range with Long.MIN_VALUE. The extra <= bound keeps
+    // the predicate a plain range on the (user_id, start_time, id) index whatever the planner
+    // makes of the OR, so a deep page costs the same as the first one.
+    @Query("SELECT f.id AS id, f.startTime AS startTime, f.endTime AS endTime, " +
+           "f.durationMinutes AS durationMinutes, f.sessionType AS sessionType " +
+           "FROM FocusSession f WHERE f.user.id = :userId " +
+           "AND (:type IS NULL OR f.sessionType = :type) " +
+           "AND f.startTime >= :start AND f.startTime <= :beforeStart " +
+           "AND (f.startTime < :beforeStart OR (f.startTime = :beforeStart AND f.id < :beforeId)) " +
+           "ORDER BY f.startTime DESC, f.id DESC")
+    List<SessionSummary> findHistoryPage(@Param("userId") Long userId,
+                                         @Param("type") String type,
+                                         @Param("start") LocalDateTime start,
+                                         @Param("beforeStart") LocalDateTime beforeStart,
+                                         @Param("beforeId") Long beforeId,
+                                         Limit limit);
+    
+    // Users with a session starting in [start, end), for the archival job
+    @Query("SELECT DISTINCT f.user.id FROM FocusSession f WHERE f.startTime >= :start AND f.startTime < :end")
+    List<Long> findUserIdsWithSessionsBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    // Runs in its own transaction, one user at a time, for the archival job
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FocusSession f WHERE f.user.id = :userId AND f.startTime < :before")
+    int deleteByUserIdAndStartTimeBefore(@Param("userId") Long userId, @Param("before") LocalDateTime before);
+    
     @Query("SELECT f FROM FocusSession f WHERE f.user = :user AND f.startTime >= :date ORDER BY f.startTime DESC")
     List<FocusSession> findByUserAndStartTimeAfter(@Param("user") User user, @Param("date") LocalDateTime date);
     
     @Query("SELECT f FROM FocusSession f WHERE f.user = :user AND DATE(f.startTime) = DATE(:date)")
     List<FocusSession> findByUserAndDate(@Param("user") User user, @Param("date") LocalDateTime date);
     
-    @Query("SELECT SUM(f.durationMinutes) FROM FocusSession f WHERE f.user = :user AND f.sessionType = 'pomodoro'")
-    Integer getTotalFocusMinutes(@Param("user") User user);
+    @Query("SELECT SUM(f.durationMinutes) FROM FocusSession f WHERE f.user = :user AND f.sessionType = 'pomodoro' AND f.durationMinutes > 0")
+    Long getTotalFocusMinutes(@Param("user") User user);
+    
+    @Query("SELECT MAX(f.startTime) FROM FocusSession f WHERE f.user = :user AND f.sessionType = 'pomodoro' AND f.durationMinutes > 0")
+    LocalDateTime getLastFocusSessionTime(@Param("user") User user);
+    
+    // Aggregates over completed pomodoros, grouped in the database
+    
+    @Query("SELECT DISTINCT CAST(f.startTime AS LocalDate) FROM FocusSession f " +
+           "WHERE f.user = :user AND f.sessionType = 'pomodoro' AND f.durationMinutes > 0 " +
+           "ORDER BY CAST(f.startTime AS LocalDate) DESC")
+    List<LocalDate> findFocusDays(@Param("user") User user);
+    
+    @Query("SELECT CAST(f.startTime AS LocalDate) AS day, SUM(f.durationMinutes) AS minutes, COUNT(f) AS sessions " +
+           "FROM FocusSession f WHERE f.user = :user AND f.sessionType = 'pomodoro' AND f.durationMinutes > 0 " +
+           "GROUP BY CAST(f.startTime AS LocalDate)")
+    List<DailyFocusTotal> sumFocusByDay(@Param("user") User user);
+    
+    @Query("SELECT CAST(f.startTime AS LocalDate) AS day, SUM(f.durationMinutes) AS minutes, COUNT(f) AS sessions " +
+           "FROM FocusSession f WHERE f.user = :user AND f.sessionType = 'pomodoro' AND f.durationMinutes > 0 " +
+           "AND f.startTime >= :start AND f.startTime < :end " +
+           "GROUP BY CAST(f.startTime AS LocalDate) ORDER BY CAST(f.startTime AS LocalDate)")
+    List<DailyFocusTotal> sumFocusByDayBetween(@Param("user") User user,
+                                               @Param("start") LocalDateTime start,
+                                               @Param("end") LocalDateTime end);
+    
+    @Query("SELECT YEAR(f.startTime) AS year, MONTH(f.startTime) AS month, " +
+           "SUM(f.durationMinutes) AS minutes, COUNT(f) AS sessions " +
+           "FROM FocusSession f WHERE f.user = :user AND f.sessionType = 'pomodoro' AND f.durationMinutes > 0 " +
+           "AND f.startTime >= :start AND f.startTime < :end " +
+           "GROUP BY YEAR(f.startTime), MONTH(f.startTime) ORDER BY YEAR(f.startTime), MONTH(f.startTime)")
+    List<MonthlyFocusTotal> sumFocusByMonthBetween(@Param("user") User user,
+                                                   @Param("start") LocalDateTime start,
+                                                   @Param("end") LocalDateTime end);
+    
+    @Query("SELECT HOUR(f.startTime) AS hour, SUM(f.durationMinutes) AS minutes, COUNT(f) AS sessions " +
+           "FROM FocusSession f WHERE f.user = :user AND f.sessionType = 'pomodoro' AND f.durationMinutes > 0 " +
+           "AND f.startTime >= :start AND f.startTime < :end " +
+           "GROUP BY HOUR(f.startTime) ORDER BY HOUR(f.startTime)")
+    List<HourlyFocusTotal> sumFocusByHourBetween(@Param("user") User user,
+                                                 @Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end);
 }
 
@@ -0,0 +1,17 @@
+package com.example.SoloFocus.io.repository;
+
+import com.example.SoloFocus.io.model.SessionArchiveRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+// Not available under the eventlog profile, which keeps every session
+@Repository
+public interface SessionArchiveRunRepository extends JpaRepository<SessionArchiveRun, Long> {
+    
+    // First day still held as raw sessions, or null if nothing was ever archived
+    @Query("SELECT MAX(r.archivedBefore) FROM SessionArchiveRun r")
+    LocalDate findArchivedBefore();
+}
@@ -0,0 +1,52 @@
+package com.example.SoloFocus.io.repository;
+
+import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.model.UserDailyFocus;
+import com.example.SoloFocus.io.repository.projection.MonthlyFocusTotal;
+import com.example.SoloFocus.io.repository.projection.UserFocusTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserDailyFocusRepository extends JpaRepository<UserDailyFocus, Long> {
+    
+    List<UserDailyFocus> findByUserAndFocusDateBetween(User user, LocalDate start, LocalDate end);
+    
+    // Called outside any service transaction by the dashboard's concurrent reads
+    @Transactional(readOnly = true)
+    List<UserDailyFocus> findByUserIdAndFocusDateBetween(Long userId, LocalDate start, LocalDate end);
+    
+    @Query("SELECT YEAR(d.focusDate) AS year, MONTH(d.focusDate) AS month, " +
+           "SUM(d.pomodoroMinutes) AS minutes, SUM(d.sessionCount) AS sessions " +
+           "FROM UserDailyFocus d WHERE d.user = :user AND d.focusDate BETWEEN :start AND :end " +
+           "GROUP BY YEAR(d.focusDate), MONTH(d.focusDate)")
+    List<MonthlyFocusTotal> sumByMonthBetween(@Param("user") User user,
+                                              @Param("start") LocalDate start,
+                                              @Param("end") LocalDate end);
+    
+    // Minutes per user over a date range, only for users with any
+    @Query("SELECT d.user.id AS userId, SUM(d.pomodoroMinutes) AS minutes " +
+           "FROM UserDailyFocus d WHERE d.focusDate BETWEEN :start AND :end GROUP BY d.user.id")
+    List<UserFocusTotal> sumByUserBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+    
+    @Modifying
+    @Query("UPDATE UserDailyFocus d SET d.pomodoroMinutes = d.pomodoroMinutes + :minutes, " +
+           "d.sessionCount = d.sessionCount + :sessions WHERE d.user = :user AND d.focusDate = :date")
+    int addToDay(@Param("user") User user, @Param("date") LocalDate date,
+                 @Param("minutes") int minutes, @Param("sessions") int sessions);
+    
+    @Modifying
+    @Query("DELETE FROM UserDailyFocus d WHERE d.user = :user")
+    void deleteByUser(@Param("user") User user);
+    
+    @Modifying
+    @Query("DELETE FROM UserDailyFocus d WHERE d.user = :user AND d.focusDate BETWEEN :start AND :end")
+    void deleteByUserBetween(@Param("user") User user, @Param("start") LocalDate start, @Param("end") LocalDate end);
+}
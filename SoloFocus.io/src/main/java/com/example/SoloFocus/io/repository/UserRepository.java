@@ -1,9 +1,17 @@
 package com.example.SoloFocus.io.repository;
 
 import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.repository.projection.UserStanding;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,5 +24,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<User> findWithLockById(Long id);
+    
+    @Query("SELECT u.statisticsVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findStatisticsVersionById(@Param("id") Long id);
+    
+    // Leaderboard figures for the users after afterId, in id order and without the activity bitmap
+    @Query("SELECT u.id AS id, u.statisticsVersion AS statisticsVersion, u.totalFocusHours AS totalFocusHours, " +
+           "u.currentStreak AS currentStreak, u.lastSessionTime AS lastSessionTime " +
+           "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserStanding> findStandingsAfter(@Param("afterId") Long afterId, Pageable page);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.statisticsVersion = u.statisticsVersion + 1 WHERE u.id = :id")
+    int incrementStatisticsVersion(@Param("id") Long id);
 }
 
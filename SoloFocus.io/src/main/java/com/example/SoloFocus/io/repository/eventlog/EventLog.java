@@ -0,0 +1,236 @@
+package com.example.SoloFocus.io.repository.eventlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only log split into fixed-size memory-mapped segment files. Positions are global
+// byte offsets and each segment file is named after the position of its first byte.
+// Records are framed as [int length][byte type][payload][int crc32] and never span
+// segments; a zero length marks the end of the written data. Not thread-safe.
+final class EventLog implements Closeable {
+    
+    private static final String SUFFIX = ".segment";
+    
+    interface RecordVisitor {
+        void visit(long position, byte type, byte[] payload) throws IOException;
+    }
+    
+    private static final class Segment {
+        final long base;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        
+        Segment(long base, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.base = base;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+    
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean fsync;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private Segment head;
+    private int headPosition;
+    
+    EventLog(Path directory, int segmentBytes, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).toList()) {
+                String name = path.getFileName().toString();
+                long base = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                segments.put(base, open(base, path, false));
+            }
+        }
+        
+        if (segments.isEmpty()) {
+            head = create(0);
+            headPosition = 0;
+        } else {
+            head = segments.lastEntry().getValue();
+            headPosition = recoverHead();
+        }
+    }
+    
+    // Finds the end of the last complete record in the head segment and clears anything
+    // after it, so a record torn by a crash is dropped and later appends start clean
+    private int recoverHead() {
+        MappedByteBuffer buffer = head.buffer;
+        int capacity = buffer.capacity();
+        int position = 0;
+        while (readLength(buffer, position) > 0 && readPayload(buffer, position) != null) {
+            position += buffer.getInt(position) + 8;
+        }
+        int i = position;
+        for (; i < capacity && (i & 7) != 0; i++) {
+            buffer.put(i, (byte) 0);
+        }
+        for (; i + 8 <= capacity; i += 8) {
+            if (buffer.getLong(i) != 0) {
+                buffer.putLong(i, 0);
+            }
+        }
+        return position;
+    }
+    
+    long append(byte type, byte[] payload) throws IOException {
+        int frame = payload.length + 9;
+        if (frame > segmentBytes) {
+            throw new IOException("Record of " + payload.length + " bytes does not fit in a segment");
+        }
+        if (headPosition + frame > head.buffer.capacity()) {
+            head = create(head.base + head.buffer.capacity());
+            headPosition = 0;
+        }
+        
+        MappedByteBuffer buffer = head.buffer;
+        int position = headPosition;
+        buffer.put(position + 4, type);
+        buffer.put(position + 5, payload);
+        buffer.putInt(position + 5 + payload.length, checksum(type, payload));
+        // The length goes in last: until it is set the record reads as the end of the log
+        buffer.putInt(position, payload.length + 1);
+        if (fsync) {
+            buffer.force(position, frame);
+        }
+        headPosition += frame;
+        return head.base + position;
+    }
+    
+    byte[] read(long position) {
+        Map.Entry<Long, Segment> entry = segments.floorEntry(position);
+        if (entry == null) {
+            throw new IllegalArgumentException("No segment holds position " + position);
+        }
+        return readPayload(entry.getValue().buffer, (int) (position - entry.getKey()));
+    }
+    
+    // Bytes the record at this position occupies, framing included
+    int frameLength(long position) {
+        Map.Entry<Long, Segment> entry = segments.floorEntry(position);
+        return entry.getValue().buffer.getInt((int) (position - entry.getKey())) + 8;
+    }
+    
+    // Visits every record at or after the given position, oldest first
+    void scan(long from, RecordVisitor visitor) throws IOException {
+        for (Segment segment : segments.tailMap(segments.floorKey(Math.max(from, segments.firstKey())), true).values()) {
+            int position = (int) Math.max(0, from - segment.base);
+            byte[] payload;
+            while (readLength(segment.buffer, position) > 0
+                    && (payload = readPayload(segment.buffer, position)) != null) {
+                visitor.visit(segment.base + position, segment.buffer.get(position + 4), payload);
+                position += segment.buffer.getInt(position) + 8;
+            }
+        }
+    }
+    
+    long getEnd() {
+        return head.base + headPosition;
+    }
+    
+    long getStart() {
+        return segments.firstKey();
+    }
+    
+    long segmentBase(long position) {
+        return segments.floorKey(position);
+    }
+    
+    // True while every record since position 0 is still on disk, i.e. no segment was deleted
+    boolean isComplete() {
+        long expected = 0;
+        for (Segment segment : segments.values()) {
+            if (segment.base != expected) {
+                return false;
+            }
+            expected += segment.buffer.capacity();
+        }
+        return true;
+    }
+    
+    // Segments other than the head, oldest first
+    List<Long> closedSegments() {
+        return new ArrayList<>(segments.headMap(head.base, false).keySet());
+    }
+    
+    void deleteSegment(long base) throws IOException {
+        if (base == head.base) {
+            throw new IllegalArgumentException("The head segment cannot be deleted");
+        }
+        Segment segment = segments.remove(base);
+        if (segment != null) {
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+        segments.clear();
+    }
+    
+    private Segment create(long base) throws IOException {
+        Segment segment = open(base, directory.resolve(String.format("%020d%s", base, SUFFIX)), true);
+        segments.put(base, segment);
+        return segment;
+    }
+    
+    private Segment open(long base, Path path, boolean create) throws IOException {
+        FileChannel channel = create
+                ? FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Existing segments keep the size they were created with
+        long size = create ? segmentBytes : channel.size();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new Segment(base, path, channel, buffer);
+    }
+    
+    private static int readLength(MappedByteBuffer buffer, int position) {
+        if (position + 4 > buffer.capacity()) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        return length > 0 && position + length + 8 <= buffer.capacity() ? length : 0;
+    }
+    
+    // Returns null for a record whose checksum does not match
+    private static byte[] readPayload(MappedByteBuffer buffer, int position) {
+        int length = readLength(buffer, position);
+        if (length == 0) {
+            return null;
+        }
+        byte type = buffer.get(position + 4);
+        byte[] payload = new byte[length - 1];
+        buffer.get(position + 5, payload);
+        return buffer.getInt(position + 4 + length) == checksum(type, payload) ? payload : null;
+    }
+    
+    private static int checksum(byte type, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.SoloFocus.io.repository.eventlog;
+
+import com.example.SoloFocus.io.model.FocusSession;
+import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.model.UserDailyFocus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Binary encoding of the entities stored in the event log. Every nullable field is
+// preceded by a presence flag. Decoded sessions and rollup rows reference their user
+// through an id-only User; the store attaches the full user where it has one.
+final class EventLogCodec {
+    
+    private EventLogCodec() {
+    }
+    
+    static byte[] encodeUser(User user) {
+        return encode(out -> {
+            out.writeLong(user.getId());
+            out.writeUTF(user.getUsername());
+            out.writeUTF(user.getEmail());
+            out.writeUTF(user.getPassword());
+            writeDateTime(out, user.getCreatedAt());
+            writeDateTime(out, user.getLastSessionTime());
+            writeInt(out, user.getCurrentStreak());
+            writeInt(out, user.getMaxStreak());
+            out.writeBoolean(user.getTotalFocusHours() != null);
+            if (user.getTotalFocusHours() != null) {
+                out.writeDouble(user.getTotalFocusHours());
+            }
+            writeLong(out, user.getActivityOriginDay());
+            out.writeInt(user.getActivityBitmap() != null ? user.getActivityBitmap().length : -1);
+            if (user.getActivityBitmap() != null) {
+                out.write(user.getActivityBitmap());
+            }
+            writeLong(out, user.getStatisticsVersion());
+        });
+    }
+    
+    static User decodeUser(byte[] payload) {
+        return decode(payload, in -> {
+            User user = new User();
+            user.setId(in.readLong());
+            user.setUsername(in.readUTF());
+            user.setEmail(in.readUTF());
+            user.setPassword(in.readUTF());
+            user.setCreatedAt(readDateTime(in));
+            user.setLastSessionTime(readDateTime(in));
+            user.setCurrentStreak(readInt(in));
+            user.setMaxStreak(readInt(in));
+            user.setTotalFocusHours(in.readBoolean() ? in.readDouble() : null);
+            user.setActivityOriginDay(readLong(in));
+            int bitmapLength = in.readInt();
+            if (bitmapLength >= 0) {
+                byte[] bitmap = new byte[bitmapLength];
+                in.readFully(bitmap);
+                user.setActivityBitmap(bitmap);
+            }
+            user.setStatisticsVersion(readLong(in));
+            return user;
+        });
+    }
+    
+    static byte[] encodeSession(FocusSession session) {
+        return encode(out -> {
+            out.writeLong(session.getId());
+            out.writeLong(session.getUser().getId());
+            writeDateTime(out, session.getStartTime());
+            writeDateTime(out, session.getEndTime());
+            writeInt(out, session.getDurationMinutes());
+            out.writeBoolean(session.getSessionType() != null);
+            if (session.getSessionType() != null) {
+                out.writeUTF(session.getSessionType());
+            }
+            writeDateTime(out, session.getCreatedAt());
+        });
+    }
+    
+    static FocusSession decodeSession(byte[] payload) {
+        return decode(payload, in -> {
+            FocusSession session = new FocusSession();
+            session.setId(in.readLong());
+            session.setUser(userRef(in.readLong()));
+            session.setStartTime(readDateTime(in));
+            session.setEndTime(readDateTime(in));
+            session.setDurationMinutes(readInt(in));
+            session.setSessionType(in.readBoolean() ? in.readUTF() : null);
+            session.setCreatedAt(readDateTime(in));
+            return session;
+        });
+    }
+    
+    static byte[] encodeDailyFocus(UserDailyFocus day) {
+        return encode(out -> {
+            out.writeLong(day.getId());
+            out.writeLong(day.getUser().getId());
+            out.writeLong(day.getFocusDate().toEpochDay());
+            out.writeInt(day.getPomodoroMinutes());
+            out.writeInt(day.getSessionCount());
+        });
+    }
+    
+    static UserDailyFocus decodeDailyFocus(byte[] payload) {
+        return decode(payload, in -> {
+            long id = in.readLong();
+            UserDailyFocus day = new UserDailyFocus(userRef(in.readLong()),
+                    LocalDate.ofEpochDay(in.readLong()), in.readInt(), in.readInt());
+            day.setId(id);
+            return day;
+        });
+    }
+    
+    static byte[] encodeId(long id) {
+        return encode(out -> out.writeLong(id));
+    }
+    
+    static long decodeId(byte[] payload) {
+        return decode(payload, DataInputStream::readLong);
+    }
+    
+    private static User userRef(long userId) {
+        User user = new User();
+        user.setId(userId);
+        return user;
+    }
+    
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+    
+    private interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+    
+    private static byte[] encode(Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static <T> T decode(byte[] payload, Reader<T> reader) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return reader.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+    
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+    }
+    
+    private static void writeInt(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+    
+    private static Integer readInt(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+    
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+    
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.SoloFocus.io.repository.eventlog;
+
+import com.example.SoloFocus.io.dto.SessionExportDTO;
+import com.example.SoloFocus.io.model.FocusSession;
+import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.repository.FocusSessionRepository;
+import com.example.SoloFocus.io.repository.projection.DailyFocusTotal;
+import com.example.SoloFocus.io.repository.projection.HourlyFocusTotal;
+import com.example.SoloFocus.io.repository.projection.MonthlyFocusTotal;
+import com.example.SoloFocus.io.repository.projection.SessionSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// The queries run over the user's sessions, read from the log through the per-user index
+@Repository
+@Profile("eventlog")
+public class EventLogFocusSessionRepository extends EventLogRepositorySupport<FocusSession>
+        implements FocusSessionRepository {
+    
+    @Autowired
+    private EventLogStore store;
+    
+    @Override
+    protected Long getId(FocusSession session) {
+        return session.getId();
+    }
+    
+    @Override
+    public <S extends FocusSession> S save(S session) {
+        store.saveSession(session);
+        return session;
+    }
+    
+    @Override
+    public Optional<FocusSession> findById(Long id) {
+        return store.findSession(id);
+    }
+    
+    @Override
+    public List<FocusSession> findAll() {
+        return store.findAllSessions();
+    }
+    
+    @Override
+    public long count() {
+        return store.countSessions();
+    }
+    
+    @Override
+    public void deleteById(Long id) {
+        store.deleteSession(id);
+    }
+    
+    @Override
+    public List<FocusSession> findByUserOrderByStartTimeDesc(User user) {
+        List<FocusSession> sessions = store.findSessionsByUser(user.getId());
+        sessions.sort(Comparator.comparing(FocusSession::getStartTime).reversed());
+        return sessions;
+    }
+    
+    // Walks the ids in start order and reads each session from the log as it is consumed
+    @Override
+    public Stream<SessionExportDTO> streamExportByUserId(Long userId) {
+        return Arrays.stream(store.findSessionIdsInStartOrder(userId))
+                .mapToObj(store::findSession)
+                .flatMap(Optional::stream)
+                .map(session -> new SessionExportDTO(session.getId(), session.getStartTime(), session.getEndTime(),
+                        session.getDurationMinutes(), session.getSessionType(), session.getCreatedAt()));
+    }
+    
+    // Binary-searches the start order for the cursor key, then walks down from it reading only
+    // the sessions the page needs, so a deep page costs the same as the first one
+    @Override
+    public List<SessionSummary> findHistoryPage(Long userId, String type, LocalDateTime start,
+                                                LocalDateTime beforeStart, Long beforeId, Limit limit) {
+        EventLogStore.StartOrder order = store.findSessionStartOrder(userId);
+        List<SessionSummary> result = new ArrayList<>();
+        for (int i = order.countBefore(beforeStart, beforeId) - 1;
+             i >= 0 && !order.startsBefore(i, start) && (limit.isUnlimited() || result.size() < limit.max()); i--) {
+            FocusSession session = store.findSession(order.idAt(i)).orElse(null);
+            if (session != null && (type == null || type.equals(session.getSessionType()))) {
+                result.add(new EventLogSessionSummary(session));
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public List<Long> findUserIdsWithSessionsBetween(LocalDateTime start, LocalDateTime end) {
+        TreeSet<Long> userIds = new TreeSet<>();
+        for (FocusSession session : store.findAllSessions()) {
+            if (!session.getStartTime().isBefore(start) && session.getStartTime().isBefore(end)) {
+                userIds.add(session.getUser().getId());
+            }
+        }
+        return new ArrayList<>(userIds);
+    }
+    
+    @Override
+    public int deleteByUserIdAndStartTimeBefore(Long userId, LocalDateTime before) {
+        int deleted = 0;
+        for (FocusSession session : store.findSessionsByUser(userId)) {
+            if (session.getStartTime().isBefore(before)) {
+                store.deleteSession(session.getId());
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+    
+    @Override
+    public List<FocusSession> findByUserAndStartTimeBetween(User user, LocalDateTime start, LocalDateTime end) {
+        List<FocusSession> result = new ArrayList<>();
+        for (FocusSession session : store.findSessionsByUser(user.getId())) {
+            if (!session.getStartTime().isBefore(start) && !session.getStartTime().isAfter(end)) {
+                result.add(session);
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public List<FocusSession> findByUserAndStartTimeAfter(User user, LocalDateTime date) {
+        List<FocusSession> result = new ArrayList<>();
+        for (FocusSession session : store.findSessionsByUser(user.getId())) {
+            if (!session.getStartTime().isBefore(date)) {
+                result.add(session);
+            }
+        }
+        result.sort(Comparator.comparing(FocusSession::getStartTime).reversed());
+        return result;
+    }
+    
+    @Override
+    public List<FocusSession> findByUserAndDate(User user, LocalDateTime date) {
+        List<FocusSession> result = new ArrayList<>();
+        for (FocusSession session : store.findSessionsByUser(user.getId())) {
+            if (session.getStartTime().toLocalDate().equals(date.toLocalDate())) {
+                result.add(session);
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public Long getTotalFocusMinutes(User user) {
+        Long total = null;
+        for (FocusSession session : completedPomodoros(user)) {
+            total = (total != null ? total : 0L) + session.getDurationMinutes();
+        }
+        return total;
+    }
+    
+    @Override
+    public LocalDateTime getLastFocusSessionTime(User user) {
+        LocalDateTime last = null;
+        for (FocusSession session : completedPomodoros(user)) {
+            if (last == null || session.getStartTime().isAfter(last)) {
+                last = session.getStartTime();
+            }
+        }
+        return last;
+    }
+    
+    @Override
+    public List<LocalDate> findFocusDays(User user) {
+        TreeSet<LocalDate> days = new TreeSet<>(Comparator.reverseOrder());
+        for (FocusSession session : completedPomodoros(user)) {
+            days.add(session.getStartTime().toLocalDate());
+        }
+        return new ArrayList<>(days);
+    }
+    
+    @Override
+    public List<DailyFocusTotal> sumFocusByDay(User user) {
+        return new ArrayList<>(sum(user, LocalDateTime.MIN, LocalDateTime.MAX,
+                LocalDateTime::toLocalDate, EventLogFocusTotal::day));
+    }
+    
+    @Override
+    public List<DailyFocusTotal> sumFocusByDayBetween(User user, LocalDateTime start, LocalDateTime end) {
+        return new ArrayList<>(sum(user, start, end, LocalDateTime::toLocalDate, EventLogFocusTotal::day));
+    }
+    
+    @Override
+    public List<MonthlyFocusTotal> sumFocusByMonthBetween(User user, LocalDateTime start, LocalDateTime end) {
+        return new ArrayList<>(sum(user, start, end, YearMonth::from, EventLogFocusTotal::month));
+    }
+    
+    @Override
+    public List<HourlyFocusTotal> sumFocusByHourBetween(User user, LocalDateTime start, LocalDateTime end) {
+        return new ArrayList<>(sum(user, start, end, LocalDateTime::getHour, EventLogFocusTotal::hour));
+    }
+    
+    private List<FocusSession> completedPomodoros(User user) {
+        List<FocusSession> result = new ArrayList<>();
+        for (FocusSession session : store.findSessionsByUser(user.getId())) {
+            if ("pomodoro".equals(session.getSessionType())
+                    && session.getDurationMinutes() != null && session.getDurationMinutes() > 0) {
+                result.add(session);
+            }
+        }
+        return result;
+    }
+    
+    // Completed pomodoros with start <= startTime < end, grouped by key in ascending key order
+    private <K> Collection<EventLogFocusTotal> sum(User user, LocalDateTime start, LocalDateTime end,
+                                                   Function<LocalDateTime, K> key,
+                                                   Function<K, EventLogFocusTotal> newTotal) {
+        Map<K, EventLogFocusTotal> totals = new TreeMap<>();
+        for (FocusSession session : completedPomodoros(user)) {
+            LocalDateTime startTime = session.getStartTime();
+            if (!startTime.isBefore(start) && startTime.isBefore(end)) {
+                totals.computeIfAbsent(key.apply(startTime), newTotal).add(session.getDurationMinutes(), 1);
+            }
+        }
+        return totals.values();
+    }
+}
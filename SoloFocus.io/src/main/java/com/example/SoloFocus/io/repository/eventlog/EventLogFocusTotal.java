@@ -0,0 +1,73 @@
+package com.example.SoloFocus.io.repository.eventlog;
+
+import com.example.SoloFocus.io.repository.projection.DailyFocusTotal;
+import com.example.SoloFocus.io.repository.projection.HourlyFocusTotal;
+import com.example.SoloFocus.io.repository.projection.MonthlyFocusTotal;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+// Running sum behind the aggregate projections the event-log repositories return
+final class EventLogFocusTotal implements DailyFocusTotal, MonthlyFocusTotal, HourlyFocusTotal {
+    
+    private LocalDate day;
+    private Integer year;
+    private Integer month;
+    private Integer hour;
+    private long minutes;
+    private long sessions;
+    
+    static EventLogFocusTotal day(LocalDate day) {
+        EventLogFocusTotal total = new EventLogFocusTotal();
+        total.day = day;
+        return total;
+    }
+    
+    static EventLogFocusTotal month(YearMonth month) {
+        EventLogFocusTotal total = new EventLogFocusTotal();
+        total.year = month.getYear();
+        total.month = month.getMonthValue();
+        return total;
+    }
+    
+    static EventLogFocusTotal hour(Integer hour) {
+        EventLogFocusTotal total = new EventLogFocusTotal();
+        total.hour = hour;
+        return total;
+    }
+    
+    void add(long minutes, long sessions) {
+        this.minutes += minutes;
+        this.sessions += sessions;
+    }
+    
+    @Override
+    public LocalDate getDay() {
+        return day;
+    }
+    
+    @Override
+    public Integer getYear() {
+        return year;
+    }
+    
+    @Override
+    public Integer getMonth() {
+        return month;
+    }
+    
+    @Override
+    public Integer getHour() {
+        return hour;
+    }
+    
+    @Override
+    public Long getMinutes() {
+        return minutes;
+    }
+    
+    @Override
+    public Long getSessions() {
+        return sessions;
+    }
+}
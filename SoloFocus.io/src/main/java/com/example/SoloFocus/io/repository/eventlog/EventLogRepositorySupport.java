@@ -0,0 +1,180 @@
+package com.example.SoloFocus.io.repository.eventlog;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+// The JpaRepository methods in terms of a few primitives each event-log repository provides.
+// Sorting, paging and query-by-example have no callers and are not supported.
+abstract class EventLogRepositorySupport<T> implements JpaRepository<T, Long> {
+    
+    protected abstract Long getId(T entity);
+    
+    @Override
+    public abstract <S extends T> S save(S entity);
+    
+    @Override
+    public abstract Optional<T> findById(Long id);
+    
+    @Override
+    public abstract List<T> findAll();
+    
+    @Override
+    public abstract long count();
+    
+    @Override
+    public abstract void deleteById(Long id);
+    
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for (S entity : entities) {
+            saved.add(save(entity));
+        }
+        return saved;
+    }
+    
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+    
+    @Override
+    public List<T> findAllById(Iterable<Long> ids) {
+        List<T> found = new ArrayList<>();
+        for (Long id : ids) {
+            findById(id).ifPresent(found::add);
+        }
+        return found;
+    }
+    
+    @Override
+    public void delete(T entity) {
+        deleteById(getId(entity));
+    }
+    
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        for (Long id : ids) {
+            deleteById(id);
+        }
+    }
+    
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        for (T entity : entities) {
+            delete(entity);
+        }
+    }
+    
+    @Override
+    public void deleteAll() {
+        deleteAll(findAll());
+    }
+    
+    // Writes reach the log as they are made, so there is nothing to flush
+    @Override
+    public void flush() {
+    }
+    
+    @Override
+    public <S extends T> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+    
+    @Override
+    public <S extends T> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+    
+    @Override
+    public void deleteAllInBatch(Iterable<T> entities) {
+        deleteAll(entities);
+    }
+    
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        deleteAllById(ids);
+    }
+    
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+    
+    @Override
+    @Deprecated
+    public T getOne(Long id) {
+        return getReferenceById(id);
+    }
+    
+    @Override
+    @Deprecated
+    public T getById(Long id) {
+        return getReferenceById(id);
+    }
+    
+    @Override
+    public T getReferenceById(Long id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException(
+                "No entity with id " + id));
+    }
+    
+    @Override
+    public List<T> findAll(Sort sort) {
+        throw unsupported();
+    }
+    
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw unsupported();
+    }
+    
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw unsupported();
+    }
+    
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("Not supported by the event log backend");
+    }
+}
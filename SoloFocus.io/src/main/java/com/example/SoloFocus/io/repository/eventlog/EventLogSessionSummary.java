@@ -0,0 +1,49 @@
+package com.example.SoloFocus.io.repository.eventlog;
+
+import com.example.SoloFocus.io.model.FocusSession;
+import com.example.SoloFocus.io.repository.projection.SessionSummary;
+
+import java.time.LocalDateTime;
+
+// History row the event-log repository returns in place of the query projection
+final class EventLogSessionSummary implements SessionSummary {
+    
+    private final Long id;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final Integer durationMinutes;
+    private final String sessionType;
+    
+    EventLogSessionSummary(FocusSession session) {
+        this.id = session.getId();
+        this.startTime = session.getStartTime();
+        this.endTime = session.getEndTime();
+        this.durationMinutes = session.getDurationMinutes();
+        this.sessionType = session.getSessionType();
+    }
+    
+    @Override
+    public Long getId() {
+        return id;
+    }
+    
+    @Override
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+    
+    @Override
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+    
+    @Override
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+    
+    @Override
+    public String getSessionType() {
+        return sessionType;
+    }
+}
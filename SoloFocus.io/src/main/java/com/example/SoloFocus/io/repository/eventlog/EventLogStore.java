@@ -0,0 +1,893 @@
+package com.example.SoloFocus.io.repository.eventlog;
+
+import com.example.SoloFocus.io.model.FocusSession;
+import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.model.UserDailyFocus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Storage behind the event-log repositories. Every write appends the new state of one row
+// to the log. Users and daily rollups are also held in memory; sessions stay in the mapped
+// segments and are found through a per-user index of log positions. The in-memory state is
+// checkpointed every checkpointInterval records, so recovery loads the checkpoint and
+// replays only the records after it. Checkpoints and compaction run on a maintenance
+// thread; writers only wait while the state is copied or a user's sessions are moved.
+// Inside a transaction each write also records how to undo it. A rollback appends records
+// that put the rows back as they were; a crash mid-transaction keeps the writes made so far.
+@Component
+@Profile("eventlog")
+public class EventLogStore {
+    
+    private static final Logger log = LoggerFactory.getLogger(EventLogStore.class);
+    
+    static final byte USER = 'U';
+    static final byte USER_DELETED = 'u';
+    static final byte SESSION = 'S';
+    static final byte SESSION_DELETED = 's';
+    static final byte DAILY_FOCUS = 'D';
+    static final byte DAILY_FOCUS_DELETED = 'd';
+    static final byte DAILY_FOCUS_CLEARED = 'c';
+    
+    private static final int CHECKPOINT_MAGIC = 0x534F4C46;
+    
+    private final Path directory;
+    private final Path checkpointPath;
+    private final int segmentBytes;
+    private final boolean fsync;
+    private final int checkpointInterval;
+    private final double compactionLiveRatio;
+    
+    private EventLog eventLog;
+    private long recordsSinceCheckpoint;
+    private boolean maintenanceScheduled;
+    private final ExecutorService maintenance = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "eventlog-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final Map<Long, byte[]> users = new HashMap<>();
+    private final Map<String, Long> userIdsByUsername = new HashMap<>();
+    private final Map<String, Long> userIdsByEmail = new HashMap<>();
+    // userId -> (sessionId -> log position), in insertion order
+    private final Map<Long, LinkedHashMap<Long, Long>> sessionPositions = new HashMap<>();
+    private final Map<Long, Long> sessionOwners = new HashMap<>();
+    // Built when first asked for and dropped when one of the user's sessions changes
+    private final Map<Long, StartOrder> startOrders = new HashMap<>();
+    private final Map<Long, TreeMap<LocalDate, UserDailyFocus>> dailyFocus = new HashMap<>();
+    private final Map<Long, UserDailyFocus> dailyFocusById = new HashMap<>();
+    private long lastUserId;
+    private long lastSessionId;
+    private long lastDailyFocusId;
+    
+    public EventLogStore(@Value("${solofocus.eventlog.directory:data/eventlog}") String directory,
+                         @Value("${solofocus.eventlog.segment-size-mb:64}") int segmentSizeMb,
+                         @Value("${solofocus.eventlog.fsync:true}") boolean fsync,
+                         @Value("${solofocus.eventlog.checkpoint-interval-records:10000}") int checkpointInterval,
+                         @Value("${solofocus.eventlog.compaction-live-ratio:0.5}") double compactionLiveRatio) {
+        this.directory = Path.of(directory);
+        this.checkpointPath = this.directory.resolve("checkpoint");
+        this.segmentBytes = segmentSizeMb * 1024 * 1024;
+        this.fsync = fsync;
+        this.checkpointInterval = checkpointInterval;
+        this.compactionLiveRatio = compactionLiveRatio;
+    }
+    
+    @PostConstruct
+    public synchronized void recover() throws IOException {
+        eventLog = new EventLog(directory, segmentBytes, fsync);
+        
+        long from = -1;
+        if (Files.exists(checkpointPath)) {
+            try {
+                from = loadCheckpoint();
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable event log checkpoint: {}", e.getMessage());
+                clear();
+            }
+        }
+        if (from < 0) {
+            // Without a checkpoint the whole log has to be replayed, which needs every segment
+            if (!eventLog.isComplete()) {
+                throw new IllegalStateException("Event log in " + directory
+                        + " has compacted segments but no valid checkpoint");
+            }
+            from = 0;
+        }
+        if (from > eventLog.getEnd()) {
+            throw new IllegalStateException("Event log checkpoint is ahead of the log in " + directory);
+        }
+        
+        long[] replayed = new long[1];
+        eventLog.scan(from, (position, type, payload) -> {
+            apply(position, type, payload);
+            replayed[0]++;
+        });
+        recordsSinceCheckpoint = replayed[0];
+        log.info("Event log recovered: {} users, {} sessions, {} records replayed",
+                users.size(), sessionOwners.size(), replayed[0]);
+    }
+    
+    // Lets a running checkpoint or compaction finish, then writes the final checkpoint
+    @PreDestroy
+    public void close() throws IOException {
+        maintenance.shutdown();
+        try {
+            maintenance.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (eventLog != null) {
+                writeCheckpoint(snapshot());
+                eventLog.close();
+                eventLog = null;
+            }
+        }
+    }
+    
+    // Users
+    
+    public synchronized User saveUser(User user) {
+        Long usernameOwner = userIdsByUsername.get(user.getUsername());
+        Long emailOwner = userIdsByEmail.get(user.getEmail());
+        if ((usernameOwner != null && !usernameOwner.equals(user.getId()))
+                || (emailOwner != null && !emailOwner.equals(user.getId()))) {
+            throw new DataIntegrityViolationException("Duplicate username or email");
+        }
+        if (user.getId() == null) {
+            user.setId(++lastUserId);
+            user.setCreatedAt(LocalDateTime.now());
+        }
+        write(USER, EventLogCodec.encodeUser(user));
+        return user;
+    }
+    
+    public synchronized Optional<User> findUser(Long id) {
+        byte[] payload = users.get(id);
+        return payload != null ? Optional.of(EventLogCodec.decodeUser(payload)) : Optional.empty();
+    }
+    
+    public synchronized Optional<User> findUserByUsername(String username) {
+        Long id = userIdsByUsername.get(username);
+        return id != null ? findUser(id) : Optional.empty();
+    }
+    
+    public synchronized Optional<User> findUserByEmail(String email) {
+        Long id = userIdsByEmail.get(email);
+        return id != null ? findUser(id) : Optional.empty();
+    }
+    
+    public synchronized List<User> findAllUsers() {
+        List<User> result = new ArrayList<>(users.size());
+        for (byte[] payload : users.values()) {
+            result.add(EventLogCodec.decodeUser(payload));
+        }
+        return result;
+    }
+    
+    // Up to limit users with an id above afterId, in id order
+    public synchronized List<User> findUsersAfter(long afterId, int limit) {
+        List<Long> ids = new ArrayList<>();
+        for (Long id : users.keySet()) {
+            if (id > afterId) {
+                ids.add(id);
+            }
+        }
+        Collections.sort(ids);
+        List<User> result = new ArrayList<>(Math.min(limit, ids.size()));
+        for (Long id : ids.subList(0, Math.min(limit, ids.size()))) {
+            result.add(EventLogCodec.decodeUser(users.get(id)));
+        }
+        return result;
+    }
+    
+    public synchronized long countUsers() {
+        return users.size();
+    }
+    
+    // Deleting a user also deletes their sessions and rollup rows
+    public synchronized void deleteUser(Long id) {
+        if (users.containsKey(id)) {
+            write(USER_DELETED, EventLogCodec.encodeId(id));
+        }
+    }
+    
+    // Sessions
+    
+    public synchronized FocusSession saveSession(FocusSession session) {
+        if (!users.containsKey(session.getUser().getId())) {
+            throw new DataIntegrityViolationException("No user with id " + session.getUser().getId());
+        }
+        if (session.getId() == null) {
+            session.setId(++lastSessionId);
+        }
+        if (session.getCreatedAt() == null) {
+            session.setCreatedAt(LocalDateTime.now());
+        }
+        write(SESSION, EventLogCodec.encodeSession(session));
+        return session;
+    }
+    
+    public synchronized Optional<FocusSession> findSession(Long id) {
+        Long userId = sessionOwners.get(id);
+        if (userId == null) {
+            return Optional.empty();
+        }
+        FocusSession session = readSession(sessionPositions.get(userId).get(id));
+        session.setUser(EventLogCodec.decodeUser(users.get(userId)));
+        return Optional.of(session);
+    }
+    
+    // Every session of the user, read from the log through the user's index
+    public synchronized List<FocusSession> findSessionsByUser(Long userId) {
+        LinkedHashMap<Long, Long> positions = sessionPositions.get(userId);
+        if (positions == null) {
+            return new ArrayList<>();
+        }
+        User user = EventLogCodec.decodeUser(users.get(userId));
+        List<FocusSession> result = new ArrayList<>(positions.size());
+        for (long position : positions.values()) {
+            FocusSession session = readSession(position);
+            session.setUser(user);
+            result.add(session);
+        }
+        return result;
+    }
+    
+    // The user's session ids by start time, then id
+    public long[] findSessionIdsInStartOrder(Long userId) {
+        return findSessionStartOrder(userId).ids.clone();
+    }
+    
+    // Only the ids and start times are held; the sessions are read again one at a time by
+    // whoever walks the order. Reused until one of the user's sessions is written.
+    synchronized StartOrder findSessionStartOrder(Long userId) {
+        StartOrder order = startOrders.get(userId);
+        if (order != null) {
+            return order;
+        }
+        LinkedHashMap<Long, Long> positions = sessionPositions.get(userId);
+        if (positions == null) {
+            return new StartOrder(new long[0][]);
+        }
+        long[][] keys = new long[positions.size()][];
+        int i = 0;
+        for (Map.Entry<Long, Long> session : positions.entrySet()) {
+            LocalDateTime startTime = readSession(session.getValue()).getStartTime();
+            keys[i++] = new long[] {startTime.toEpochSecond(ZoneOffset.UTC), startTime.getNano(), session.getKey()};
+        }
+        Arrays.sort(keys, START_ORDER);
+        order = new StartOrder(keys);
+        startOrders.put(userId, order);
+        return order;
+    }
+    
+    public synchronized List<FocusSession> findAllSessions() {
+        List<FocusSession> result = new ArrayList<>(sessionOwners.size());
+        for (Long userId : sessionPositions.keySet()) {
+            result.addAll(findSessionsByUser(userId));
+        }
+        return result;
+    }
+    
+    public synchronized long countSessions() {
+        return sessionOwners.size();
+    }
+    
+    public synchronized void deleteSession(Long id) {
+        if (sessionOwners.containsKey(id)) {
+            write(SESSION_DELETED, EventLogCodec.encodeId(id));
+        }
+    }
+    
+    // Daily rollup
+    
+    public synchronized UserDailyFocus saveDailyFocus(UserDailyFocus day) {
+        Long userId = day.getUser().getId();
+        if (!users.containsKey(userId)) {
+            throw new DataIntegrityViolationException("No user with id " + userId);
+        }
+        UserDailyFocus existing = dailyFocus.getOrDefault(userId, new TreeMap<>()).get(day.getFocusDate());
+        if (existing != null && !existing.getId().equals(day.getId())) {
+            throw new DataIntegrityViolationException("Duplicate daily focus row for " + day.getFocusDate());
+        }
+        if (day.getId() == null) {
+            day.setId(++lastDailyFocusId);
+        }
+        write(DAILY_FOCUS, EventLogCodec.encodeDailyFocus(day));
+        return day;
+    }
+    
+    public synchronized Optional<UserDailyFocus> findDailyFocus(Long id) {
+        UserDailyFocus day = dailyFocusById.get(id);
+        return day != null ? Optional.of(copy(day)) : Optional.empty();
+    }
+    
+    // Rows for the user with start <= focusDate <= end, oldest first
+    public synchronized List<UserDailyFocus> findDailyFocus(Long userId, LocalDate start, LocalDate end) {
+        List<UserDailyFocus> result = new ArrayList<>();
+        TreeMap<LocalDate, UserDailyFocus> days = dailyFocus.get(userId);
+        if (days != null && !start.isAfter(end)) {
+            for (UserDailyFocus day : days.subMap(start, true, end, true).values()) {
+                result.add(copy(day));
+            }
+        }
+        return result;
+    }
+    
+    // Minutes per user with start <= focusDate <= end, for users with any
+    public synchronized Map<Long, Long> sumDailyFocusByUser(LocalDate start, LocalDate end) {
+        Map<Long, Long> result = new HashMap<>();
+        if (start.isAfter(end)) {
+            return result;
+        }
+        for (Map.Entry<Long, TreeMap<LocalDate, UserDailyFocus>> user : dailyFocus.entrySet()) {
+            long minutes = 0;
+            boolean found = false;
+            for (UserDailyFocus day : user.getValue().subMap(start, true, end, true).values()) {
+                minutes += day.getPomodoroMinutes();
+                found = true;
+            }
+            if (found) {
+                result.put(user.getKey(), minutes);
+            }
+        }
+        return result;
+    }
+    
+    public synchronized List<UserDailyFocus> findAllDailyFocus() {
+        List<UserDailyFocus> result = new ArrayList<>(dailyFocusById.size());
+        for (UserDailyFocus day : dailyFocusById.values()) {
+            result.add(copy(day));
+        }
+        return result;
+    }
+    
+    public synchronized long countDailyFocus() {
+        return dailyFocusById.size();
+    }
+    
+    // Adds to an existing row; returns 0 when the user has no row for that day
+    public synchronized int addToDay(Long userId, LocalDate date, int minutes, int sessions) {
+        TreeMap<LocalDate, UserDailyFocus> days = dailyFocus.get(userId);
+        UserDailyFocus existing = days != null ? days.get(date) : null;
+        if (existing == null) {
+            return 0;
+        }
+        UserDailyFocus updated = copy(existing);
+        updated.setPomodoroMinutes(existing.getPomodoroMinutes() + minutes);
+        updated.setSessionCount(existing.getSessionCount() + sessions);
+        write(DAILY_FOCUS, EventLogCodec.encodeDailyFocus(updated));
+        return 1;
+    }
+    
+    public synchronized void deleteDailyFocus(Long id) {
+        if (dailyFocusById.containsKey(id)) {
+            write(DAILY_FOCUS_DELETED, EventLogCodec.encodeId(id));
+        }
+    }
+    
+    public synchronized void deleteDailyFocusByUser(Long userId) {
+        if (dailyFocus.containsKey(userId)) {
+            write(DAILY_FOCUS_CLEARED, EventLogCodec.encodeId(userId));
+        }
+    }
+    
+    // Reverts the writes of a rolled-back transaction, newest first. A row that another
+    // transaction has changed since is left as that transaction wrote it.
+    synchronized void rollback(UndoLog undoLog) {
+        for (int i = undoLog.entries.size() - 1; i >= 0; i--) {
+            undoLog.entries.get(i).run();
+        }
+        undoLog.entries.clear();
+    }
+    
+    private void write(byte type, byte[] payload) {
+        UndoLog undoLog = (UndoLog) TransactionSynchronizationManager.getResource(this);
+        Runnable undo = undoLog != null ? undoOf(type, payload) : null;
+        append(type, payload);
+        if (undo != null) {
+            undoLog.entries.add(undo);
+        }
+    }
+    
+    // Captures the state a record is about to replace, so it must run before the record is applied
+    private Runnable undoOf(byte type, byte[] payload) {
+        switch (type) {
+            case USER -> {
+                Long id = EventLogCodec.decodeUser(payload).getId();
+                byte[] before = users.get(id);
+                return () -> {
+                    if (Arrays.equals(users.get(id), payload)) {
+                        append(before != null ? USER : USER_DELETED, before != null ? before : EventLogCodec.encodeId(id));
+                    }
+                };
+            }
+            case USER_DELETED -> {
+                Long id = EventLogCodec.decodeId(payload);
+                byte[] before = users.get(id);
+                List<byte[]> sessions = sessionPayloads(id);
+                List<byte[]> days = dailyFocusPayloads(id);
+                return () -> {
+                    if (before != null && !users.containsKey(id)) {
+                        append(USER, before);
+                        sessions.forEach(session -> append(SESSION, session));
+                        days.forEach(day -> append(DAILY_FOCUS, day));
+                    }
+                };
+            }
+            case SESSION -> {
+                Long id = EventLogCodec.decodeSession(payload).getId();
+                byte[] before = sessionPayload(id);
+                return () -> {
+                    if (Arrays.equals(sessionPayload(id), payload)) {
+                        append(before != null ? SESSION : SESSION_DELETED, before != null ? before : EventLogCodec.encodeId(id));
+                    }
+                };
+            }
+            case SESSION_DELETED -> {
+                Long id = EventLogCodec.decodeId(payload);
+                byte[] before = sessionPayload(id);
+                return () -> {
+                    if (before != null && !sessionOwners.containsKey(id)) {
+                        append(SESSION, before);
+                    }
+                };
+            }
+            case DAILY_FOCUS -> {
+                Long id = EventLogCodec.decodeDailyFocus(payload).getId();
+                byte[] before = dailyFocusPayload(id);
+                return () -> {
+                    if (Arrays.equals(dailyFocusPayload(id), payload)) {
+                        append(before != null ? DAILY_FOCUS : DAILY_FOCUS_DELETED, before != null ? before : EventLogCodec.encodeId(id));
+                    }
+                };
+            }
+            case DAILY_FOCUS_DELETED -> {
+                Long id = EventLogCodec.decodeId(payload);
+                byte[] before = dailyFocusPayload(id);
+                return () -> {
+                    if (before != null && !dailyFocusById.containsKey(id)) {
+                        append(DAILY_FOCUS, before);
+                    }
+                };
+            }
+            case DAILY_FOCUS_CLEARED -> {
+                List<byte[]> days = dailyFocusPayloads(EventLogCodec.decodeId(payload));
+                return () -> {
+                    for (byte[] day : days) {
+                        if (!dailyFocusById.containsKey(EventLogCodec.decodeDailyFocus(day).getId())) {
+                            append(DAILY_FOCUS, day);
+                        }
+                    }
+                };
+            }
+            default -> throw new IllegalStateException("Unknown event log record type " + type);
+        }
+    }
+    
+    private byte[] sessionPayload(Long id) {
+        Long userId = sessionOwners.get(id);
+        return userId != null ? eventLog.read(sessionPositions.get(userId).get(id)) : null;
+    }
+    
+    private List<byte[]> sessionPayloads(Long userId) {
+        List<byte[]> result = new ArrayList<>();
+        LinkedHashMap<Long, Long> positions = sessionPositions.get(userId);
+        if (positions != null) {
+            positions.values().forEach(position -> result.add(eventLog.read(position)));
+        }
+        return result;
+    }
+    
+    private byte[] dailyFocusPayload(Long id) {
+        UserDailyFocus day = dailyFocusById.get(id);
+        return day != null ? EventLogCodec.encodeDailyFocus(day) : null;
+    }
+    
+    private List<byte[]> dailyFocusPayloads(Long userId) {
+        List<byte[]> result = new ArrayList<>();
+        TreeMap<LocalDate, UserDailyFocus> days = dailyFocus.get(userId);
+        if (days != null) {
+            days.values().forEach(day -> result.add(EventLogCodec.encodeDailyFocus(day)));
+        }
+        return result;
+    }
+    
+    private void append(byte type, byte[] payload) {
+        try {
+            long position = eventLog.append(type, payload);
+            apply(position, type, payload);
+            if (++recordsSinceCheckpoint >= checkpointInterval && !maintenanceScheduled) {
+                maintenanceScheduled = true;
+                maintenance.execute(this::maintain);
+            }
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Could not write to the event log", e);
+        }
+    }
+    
+    // Applies one record to the in-memory state; used both for new writes and for replay
+    private void apply(long position, byte type, byte[] payload) {
+        switch (type) {
+            case USER -> putUser(payload);
+            case USER_DELETED -> removeUser(EventLogCodec.decodeId(payload));
+            case SESSION -> {
+                FocusSession session = EventLogCodec.decodeSession(payload);
+                putSession(session.getId(), session.getUser().getId(), position);
+            }
+            case SESSION_DELETED -> removeSession(EventLogCodec.decodeId(payload));
+            case DAILY_FOCUS -> putDailyFocus(EventLogCodec.decodeDailyFocus(payload));
+            case DAILY_FOCUS_DELETED -> removeDailyFocus(dailyFocusById.get(EventLogCodec.decodeId(payload)));
+            case DAILY_FOCUS_CLEARED -> {
+                TreeMap<LocalDate, UserDailyFocus> days = dailyFocus.remove(EventLogCodec.decodeId(payload));
+                if (days != null) {
+                    days.values().forEach(day -> dailyFocusById.remove(day.getId()));
+                }
+            }
+            default -> throw new IllegalStateException("Unknown event log record type " + type + " at " + position);
+        }
+    }
+    
+    private void putUser(byte[] payload) {
+        User user = EventLogCodec.decodeUser(payload);
+        byte[] previous = users.put(user.getId(), payload);
+        if (previous != null) {
+            User old = EventLogCodec.decodeUser(previous);
+            userIdsByUsername.remove(old.getUsername());
+            userIdsByEmail.remove(old.getEmail());
+        }
+        userIdsByUsername.put(user.getUsername(), user.getId());
+        userIdsByEmail.put(user.getEmail(), user.getId());
+        lastUserId = Math.max(lastUserId, user.getId());
+    }
+    
+    private void removeUser(Long id) {
+        byte[] payload = users.remove(id);
+        if (payload != null) {
+            User user = EventLogCodec.decodeUser(payload);
+            userIdsByUsername.remove(user.getUsername());
+            userIdsByEmail.remove(user.getEmail());
+        }
+        LinkedHashMap<Long, Long> positions = sessionPositions.remove(id);
+        startOrders.remove(id);
+        if (positions != null) {
+            positions.keySet().forEach(sessionOwners::remove);
+        }
+        TreeMap<LocalDate, UserDailyFocus> days = dailyFocus.remove(id);
+        if (days != null) {
+            days.values().forEach(day -> dailyFocusById.remove(day.getId()));
+        }
+    }
+    
+    private void putSession(long id, long userId, long position) {
+        Long previousOwner = sessionOwners.put(id, userId);
+        if (previousOwner != null && previousOwner != userId) {
+            sessionPositions.get(previousOwner).remove(id);
+            startOrders.remove(previousOwner);
+        }
+        startOrders.remove(userId);
+        sessionPositions.computeIfAbsent(userId, key -> new LinkedHashMap<>()).put(id, position);
+        lastSessionId = Math.max(lastSessionId, id);
+    }
+    
+    private void removeSession(Long id) {
+        Long userId = sessionOwners.remove(id);
+        if (userId != null) {
+            sessionPositions.get(userId).remove(id);
+            startOrders.remove(userId);
+        }
+    }
+    
+    private void putDailyFocus(UserDailyFocus day) {
+        removeDailyFocus(dailyFocusById.get(day.getId()));
+        dailyFocus.computeIfAbsent(day.getUser().getId(), key -> new TreeMap<>()).put(day.getFocusDate(), day);
+        dailyFocusById.put(day.getId(), day);
+        lastDailyFocusId = Math.max(lastDailyFocusId, day.getId());
+    }
+    
+    private void removeDailyFocus(UserDailyFocus day) {
+        if (day != null) {
+            dailyFocusById.remove(day.getId());
+            TreeMap<LocalDate, UserDailyFocus> days = dailyFocus.get(day.getUser().getId());
+            if (days != null) {
+                days.remove(day.getFocusDate());
+            }
+        }
+    }
+    
+    private FocusSession readSession(long position) {
+        return EventLogCodec.decodeSession(eventLog.read(position));
+    }
+    
+    // The undo actions of the current transaction, bound to it by EventLogTransactionManager
+    static final class UndoLog {
+        
+        private final List<Runnable> entries = new ArrayList<>();
+        private boolean rollbackOnly;
+        
+        boolean isRollbackOnly() {
+            return rollbackOnly;
+        }
+        
+        void setRollbackOnly() {
+            rollbackOnly = true;
+        }
+    }
+    
+    private static UserDailyFocus copy(UserDailyFocus day) {
+        UserDailyFocus copy = new UserDailyFocus(day.getUser(), day.getFocusDate(),
+                day.getPomodoroMinutes(), day.getSessionCount());
+        copy.setId(day.getId());
+        return copy;
+    }
+    
+    private void clear() {
+        users.clear();
+        userIdsByUsername.clear();
+        userIdsByEmail.clear();
+        sessionPositions.clear();
+        startOrders.clear();
+        sessionOwners.clear();
+        dailyFocus.clear();
+        dailyFocusById.clear();
+        lastUserId = 0;
+        lastSessionId = 0;
+        lastDailyFocusId = 0;
+    }
+    
+    // Runs on the maintenance thread, outside the monitor
+    private void maintain() {
+        try {
+            writeCheckpoint(snapshot());
+            compact();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Event log checkpoint failed; retrying after the next {} records", checkpointInterval, e);
+        } finally {
+            synchronized (this) {
+                maintenanceScheduled = false;
+            }
+        }
+    }
+    
+    // A copy of the in-memory state as of the end of the log, or null once the store is closed
+    private synchronized Snapshot snapshot() {
+        if (eventLog == null) {
+            return null;
+        }
+        Snapshot snapshot = new Snapshot();
+        snapshot.position = eventLog.getEnd();
+        snapshot.lastUserId = lastUserId;
+        snapshot.lastSessionId = lastSessionId;
+        snapshot.lastDailyFocusId = lastDailyFocusId;
+        snapshot.users = new ArrayList<>(users.values());
+        snapshot.sessions = new long[sessionOwners.size() * 3];
+        int i = 0;
+        for (Map.Entry<Long, LinkedHashMap<Long, Long>> user : sessionPositions.entrySet()) {
+            for (Map.Entry<Long, Long> session : user.getValue().entrySet()) {
+                snapshot.sessions[i++] = session.getKey();
+                snapshot.sessions[i++] = user.getKey();
+                snapshot.sessions[i++] = session.getValue();
+            }
+        }
+        snapshot.dailyFocus = new ArrayList<>(dailyFocusById.size());
+        for (UserDailyFocus day : dailyFocusById.values()) {
+            snapshot.dailyFocus.add(EventLogCodec.encodeDailyFocus(day));
+        }
+        recordsSinceCheckpoint = 0;
+        return snapshot;
+    }
+    
+    // Checkpoint: [magic][log position][id counters][users][session index][daily rows][crc32].
+    // Written to a temporary file and moved into place, so a crash leaves the previous one.
+    private void writeCheckpoint(Snapshot snapshot) throws IOException {
+        if (snapshot == null) {
+            return;
+        }
+        Path tmp = directory.resolve("checkpoint.tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeLong(snapshot.position);
+            out.writeLong(snapshot.lastUserId);
+            out.writeLong(snapshot.lastSessionId);
+            out.writeLong(snapshot.lastDailyFocusId);
+            
+            out.writeInt(snapshot.users.size());
+            for (byte[] payload : snapshot.users) {
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+            out.writeInt(snapshot.sessions.length / 3);
+            for (long value : snapshot.sessions) {
+                out.writeLong(value);
+            }
+            out.writeInt(snapshot.dailyFocus.size());
+            for (byte[] payload : snapshot.dailyFocus) {
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+            out.writeLong(crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, checkpointPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    // Returns the log position the checkpoint covers
+    private long loadCheckpoint() throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(checkpointPath), 1 << 16), crc))) {
+            if (in.readInt() != CHECKPOINT_MAGIC) {
+                throw new IOException("Not an event log checkpoint");
+            }
+            long position = in.readLong();
+            lastUserId = in.readLong();
+            lastSessionId = in.readLong();
+            lastDailyFocusId = in.readLong();
+            
+            for (int i = in.readInt(); i > 0; i--) {
+                putUser(in.readNBytes(in.readInt()));
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                putSession(in.readLong(), in.readLong(), in.readLong());
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                putDailyFocus(EventLogCodec.decodeDailyFocus(in.readNBytes(in.readInt())));
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Event log checkpoint checksum mismatch");
+            }
+            return position;
+        }
+    }
+    
+    // Once checkpointed, closed segments only matter for the sessions whose latest version
+    // they hold. Segments where those are less than compactionLiveRatio of the bytes have
+    // the sessions copied to the head, and are deleted once a new checkpoint points there.
+    // The copy takes the monitor one user at a time, so writers are never held up by all of it.
+    private void compact() throws IOException {
+        Set<Long> reclaimable = new HashSet<>();
+        List<Long> userIds;
+        synchronized (this) {
+            if (eventLog == null) {
+                return;
+            }
+            Map<Long, Long> liveBytes = new HashMap<>();
+            for (LinkedHashMap<Long, Long> positions : sessionPositions.values()) {
+                for (long position : positions.values()) {
+                    liveBytes.merge(eventLog.segmentBase(position), (long) eventLog.frameLength(position), Long::sum);
+                }
+            }
+            for (Long base : eventLog.closedSegments()) {
+                if (liveBytes.getOrDefault(base, 0L) < compactionLiveRatio * segmentBytes) {
+                    reclaimable.add(base);
+                }
+            }
+            if (reclaimable.isEmpty()) {
+                return;
+            }
+            userIds = new ArrayList<>(sessionPositions.keySet());
+        }
+        
+        // Sessions written from here on go to the head, which is never reclaimable
+        for (Long userId : userIds) {
+            synchronized (this) {
+                LinkedHashMap<Long, Long> positions = eventLog != null ? sessionPositions.get(userId) : null;
+                if (positions == null) {
+                    continue;
+                }
+                for (Map.Entry<Long, Long> session : positions.entrySet()) {
+                    if (reclaimable.contains(eventLog.segmentBase(session.getValue()))) {
+                        session.setValue(eventLog.append(SESSION, eventLog.read(session.getValue())));
+                    }
+                }
+            }
+        }
+        writeCheckpoint(snapshot());
+        synchronized (this) {
+            if (eventLog == null) {
+                return;
+            }
+            for (Long base : reclaimable) {
+                eventLog.deleteSegment(base);
+            }
+        }
+        log.info("Event log compacted {} segments", reclaimable.size());
+    }
+    
+    private static final Comparator<long[]> START_ORDER = Comparator.<long[]>comparingLong(key -> key[0])
+            .thenComparingLong(key -> key[1]).thenComparingLong(key -> key[2]);
+    
+    // Keys are {start epoch second, start nano, session id}
+    static final class StartOrder {
+        
+        private final long[][] keys;
+        private final long[] ids;
+        
+        private StartOrder(long[][] keys) {
+            this.keys = keys;
+            this.ids = new long[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                ids[i] = keys[i][2];
+            }
+        }
+        
+        long idAt(int index) {
+            return ids[index];
+        }
+        
+        boolean startsBefore(int index, LocalDateTime time) {
+            return START_ORDER.compare(keys[index], key(time, Long.MIN_VALUE)) < 0;
+        }
+        
+        // How many sessions sort before (startTime, id)
+        int countBefore(LocalDateTime startTime, long id) {
+            int index = Arrays.binarySearch(keys, key(startTime, id), START_ORDER);
+            return index >= 0 ? index : -index - 1;
+        }
+        
+        private static long[] key(LocalDateTime time, long id) {
+            return new long[] {time.toEpochSecond(ZoneOffset.UTC), time.getNano(), id};
+        }
+    }
+    
+    private static final class Snapshot {
+        
+        private long position;
+        private long lastUserId;
+        private long lastSessionId;
+        private long lastDailyFocusId;
+        private List<byte[]> users;
+        // sessionId, userId, log position
+        private long[] sessions;
+        private List<byte[]> dailyFocus;
+    }
+}
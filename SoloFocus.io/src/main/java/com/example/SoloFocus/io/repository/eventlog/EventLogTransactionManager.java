@@ -0,0 +1,86 @@
+package com.example.SoloFocus.io.repository.eventlog;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Keeps @Transactional boundaries, synchronizations and AFTER_COMMIT listeners working
+// without a database. The event log applies each write as it is made, so there is nothing
+// to commit; a rollback has the store undo the writes the transaction made. Other
+// transactions see writes before they commit.
+public class EventLogTransactionManager extends AbstractPlatformTransactionManager {
+    
+    private final EventLogStore store;
+    
+    public EventLogTransactionManager(EventLogStore store) {
+        this.store = store;
+    }
+    
+    @Override
+    protected Object doGetTransaction() {
+        return new EventLogTransaction((EventLogStore.UndoLog) TransactionSynchronizationManager.getResource(store));
+    }
+    
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((EventLogTransaction) transaction).undoLog != null;
+    }
+    
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        EventLogTransaction eventLogTransaction = (EventLogTransaction) transaction;
+        eventLogTransaction.undoLog = new EventLogStore.UndoLog();
+        TransactionSynchronizationManager.bindResource(store, eventLogTransaction.undoLog);
+    }
+    
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((EventLogTransaction) transaction).undoLog = null;
+        return TransactionSynchronizationManager.unbindResource(store);
+    }
+    
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(store, suspendedResources);
+    }
+    
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+    
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        store.rollback(((EventLogTransaction) status.getTransaction()).undoLog);
+    }
+    
+    // A participating transaction failed; the outermost one rolls back instead of committing
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((EventLogTransaction) status.getTransaction()).undoLog.setRollbackOnly();
+    }
+    
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResource(store);
+    }
+    
+    private static final class EventLogTransaction implements SmartTransactionObject {
+        
+        private EventLogStore.UndoLog undoLog;
+        
+        EventLogTransaction(EventLogStore.UndoLog undoLog) {
+            this.undoLog = undoLog;
+        }
+        
+        @Override
+        public boolean isRollbackOnly() {
+            return undoLog != null && undoLog.isRollbackOnly();
+        }
+        
+        @Override
+        public void flush() {
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.SoloFocus.io.repository.eventlog;
+
+import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.model.UserDailyFocus;
+import com.example.SoloFocus.io.repository.UserDailyFocusRepository;
+import com.example.SoloFocus.io.repository.projection.MonthlyFocusTotal;
+import com.example.SoloFocus.io.repository.projection.UserFocusTotal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Repository
+@Profile("eventlog")
+public class EventLogUserDailyFocusRepository extends EventLogRepositorySupport<UserDailyFocus>
+        implements UserDailyFocusRepository {
+    
+    @Autowired
+    private EventLogStore store;
+    
+    @Override
+    protected Long getId(UserDailyFocus day) {
+        return day.getId();
+    }
+    
+    @Override
+    public <S extends UserDailyFocus> S save(S day) {
+        store.saveDailyFocus(day);
+        return day;
+    }
+    
+    @Override
+    public Optional<UserDailyFocus> findById(Long id) {
+        return store.findDailyFocus(id);
+    }
+    
+    @Override
+    public List<UserDailyFocus> findAll() {
+        return store.findAllDailyFocus();
+    }
+    
+    @Override
+    public long count() {
+        return store.countDailyFocus();
+    }
+    
+    @Override
+    public void deleteById(Long id) {
+        store.deleteDailyFocus(id);
+    }
+    
+    @Override
+    public List<UserDailyFocus> findByUserAndFocusDateBetween(User user, LocalDate start, LocalDate end) {
+        return store.findDailyFocus(user.getId(), start, end);
+    }
+    
+    @Override
+    public List<UserDailyFocus> findByUserIdAndFocusDateBetween(Long userId, LocalDate start, LocalDate end) {
+        return store.findDailyFocus(userId, start, end);
+    }
+    
+    @Override
+    public List<MonthlyFocusTotal> sumByMonthBetween(User user, LocalDate start, LocalDate end) {
+        // Rows come back in date order, so months are filled one after another
+        Map<YearMonth, EventLogFocusTotal> months = new LinkedHashMap<>();
+        for (UserDailyFocus day : store.findDailyFocus(user.getId(), start, end)) {
+            months.computeIfAbsent(YearMonth.from(day.getFocusDate()), EventLogFocusTotal::month)
+                    .add(day.getPomodoroMinutes(), day.getSessionCount());
+        }
+        return new ArrayList<>(months.values());
+    }
+    
+    @Override
+    public List<UserFocusTotal> sumByUserBetween(LocalDate start, LocalDate end) {
+        List<UserFocusTotal> totals = new ArrayList<>();
+        for (Map.Entry<Long, Long> user : store.sumDailyFocusByUser(start, end).entrySet()) {
+            totals.add(EventLogUserStanding.total(user.getKey(), user.getValue()));
+        }
+        return totals;
+    }
+    
+    @Override
+    public int addToDay(User user, LocalDate date, int minutes, int sessions) {
+        return store.addToDay(user.getId(), date, minutes, sessions);
+    }
+    
+    @Override
+    public void deleteByUser(User user) {
+        store.deleteDailyFocusByUser(user.getId());
+    }
+    
+    @Override
+    public void deleteByUserBetween(User user, LocalDate start, LocalDate end) {
+        for (UserDailyFocus day : store.findDailyFocus(user.getId(), start, end)) {
+            store.deleteDailyFocus(day.getId());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.SoloFocus.io.repository.eventlog;
+
+import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.repository.UserRepository;
+import com.example.SoloFocus.io.repository.projection.UserStanding;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Repository
+@Profile("eventlog")
+public class EventLogUserRepository extends EventLogRepositorySupport<User> implements UserRepository {
+    
+    @Autowired
+    private EventLogStore store;
+    
+    // Stand-in for the row lock: held from findWithLockById until the transaction completes
+    private final Map<Long, ReentrantLock> userLocks = new ConcurrentHashMap<>();
+    
+    @Override
+    protected Long getId(User user) {
+        return user.getId();
+    }
+    
+    @Override
+    public <S extends User> S save(S user) {
+        store.saveUser(user);
+        return user;
+    }
+    
+    @Override
+    public Optional<User> findById(Long id) {
+        return store.findUser(id);
+    }
+    
+    @Override
+    public List<User> findAll() {
+        return store.findAllUsers();
+    }
+    
+    @Override
+    public long count() {
+        return store.countUsers();
+    }
+    
+    @Override
+    public void deleteById(Long id) {
+        store.deleteUser(id);
+    }
+    
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return store.findUserByUsername(username);
+    }
+    
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return store.findUserByEmail(email);
+    }
+    
+    @Override
+    public boolean existsByUsername(String username) {
+        return store.findUserByUsername(username).isPresent();
+    }
+    
+    @Override
+    public boolean existsByEmail(String email) {
+        return store.findUserByEmail(email).isPresent();
+    }
+    
+    @Override
+    public Optional<User> findWithLockById(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            ReentrantLock lock = userLocks.computeIfAbsent(id, key -> new ReentrantLock());
+            lock.lock();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        }
+        return store.findUser(id);
+    }
+    
+    @Override
+    public Optional<Long> findStatisticsVersionById(Long id) {
+        return store.findUser(id).map(User::getStatisticsVersion);
+    }
+    
+    @Override
+    public List<UserStanding> findStandingsAfter(Long afterId, Pageable page) {
+        List<UserStanding> standings = new ArrayList<>();
+        for (User user : store.findUsersAfter(afterId, page.getPageSize())) {
+            standings.add(EventLogUserStanding.of(user));
+        }
+        return standings;
+    }
+    
+    @Override
+    public int incrementStatisticsVersion(Long id) {
+        Optional<User> user = store.findUser(id);
+        if (user.isEmpty()) {
+            return 0;
+        }
+        user.get().setStatisticsVersion(user.get().getStatisticsVersion() + 1);
+        store.saveUser(user.get());
+        return 1;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.SoloFocus.io.repository.eventlog;
+
+import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.repository.projection.UserFocusTotal;
+import com.example.SoloFocus.io.repository.projection.UserStanding;
+
+import java.time.LocalDateTime;
+
+// The per-user projections the event-log repositories return for the leaderboard
+final class EventLogUserStanding implements UserStanding, UserFocusTotal {
+    
+    private Long id;
+    private Long statisticsVersion;
+    private Double totalFocusHours;
+    private Integer currentStreak;
+    private LocalDateTime lastSessionTime;
+    private Long minutes;
+    
+    static EventLogUserStanding of(User user) {
+        EventLogUserStanding standing = new EventLogUserStanding();
+        standing.id = user.getId();
+        standing.statisticsVersion = user.getStatisticsVersion();
+        standing.totalFocusHours = user.getTotalFocusHours();
+        standing.currentStreak = user.getCurrentStreak();
+        standing.lastSessionTime = user.getLastSessionTime();
+        return standing;
+    }
+    
+    static EventLogUserStanding total(Long userId, Long minutes) {
+        EventLogUserStanding total = new EventLogUserStanding();
+        total.id = userId;
+        total.minutes = minutes;
+        return total;
+    }
+    
+    @Override
+    public Long getId() {
+        return id;
+    }
+    
+    @Override
+    public Long getUserId() {
+        return id;
+    }
+    
+    @Override
+    public Long getStatisticsVersion() {
+        return statisticsVersion;
+    }
+    
+    @Override
+    public Double getTotalFocusHours() {
+        return totalFocusHours;
+    }
+    
+    @Override
+    public Integer getCurrentStreak() {
+        return currentStreak;
+    }
+    
+    @Override
+    public LocalDateTime getLastSessionTime() {
+        return lastSessionTime;
+    }
+    
+    @Override
+    public Long getMinutes() {
+        return minutes;
+    }
+}
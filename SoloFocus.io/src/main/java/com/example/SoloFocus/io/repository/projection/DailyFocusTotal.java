@@ -0,0 +1,12 @@
+package com.example.SoloFocus.io.repository.projection;
+
+import java.time.LocalDate;
+
+public interface DailyFocusTotal {
+    
+    LocalDate getDay();
+    
+    Long getMinutes();
+    
+    Long getSessions();
+}
@@ -0,0 +1,10 @@
+package com.example.SoloFocus.io.repository.projection;
+
+public interface HourlyFocusTotal {
+    
+    Integer getHour();
+    
+    Long getMinutes();
+    
+    Long getSessions();
+}
@@ -0,0 +1,12 @@
+package com.example.SoloFocus.io.repository.projection;
+
+public interface MonthlyFocusTotal {
+    
+    Integer getYear();
+    
+    Integer getMonth();
+    
+    Long getMinutes();
+    
+    Long getSessions();
+}
@@ -0,0 +1,16 @@
+package com.example.SoloFocus.io.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface SessionSummary {
+    
+    Long getId();
+    
+    LocalDateTime getStartTime();
+    
+    LocalDateTime getEndTime();
+    
+    Integer getDurationMinutes();
+    
+    String getSessionType();
+}
@@ -0,0 +1,8 @@
+package com.example.SoloFocus.io.repository.projection;
+
+public interface UserFocusTotal {
+    
+    Long getUserId();
+    
+    Long getMinutes();
+}
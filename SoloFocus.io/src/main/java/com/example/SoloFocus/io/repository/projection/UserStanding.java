@@ -0,0 +1,16 @@
+package com.example.SoloFocus.io.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface UserStanding {
+    
+    Long getId();
+    
+    Long getStatisticsVersion();
+    
+    Double getTotalFocusHours();
+    
+    Integer getCurrentStreak();
+    
+    LocalDateTime getLastSessionTime();
+}
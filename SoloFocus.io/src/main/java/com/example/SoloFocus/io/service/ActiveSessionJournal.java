@@ -0,0 +1,243 @@
+package com.example.SoloFocus.io.service;
+
+import com.example.SoloFocus.io.model.ActiveSession;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Append-only log of session starts and ends. Each record is framed as
+// [int length][payload][int crc32]; a torn or corrupt tail left by a crash is dropped on replay.
+// Appends only write; sync() makes them durable. Appending, compaction and close are
+// serialised by ActiveSessionRegistry. sync() is called outside that lock and batches
+// callers: one of them forces the channel for every append written so far while the
+// others wait, so concurrent starts and ends share one fsync.
+final class ActiveSessionJournal {
+    
+    private static final byte STARTED = 'S';
+    private static final byte ENDED = 'E';
+    
+    // Session types are capped at the focus_sessions column width, so real records are far smaller
+    private static final int MAX_RECORD_BYTES = 4096;
+    
+    private final Path path;
+    private final boolean fsync;
+    private FileChannel channel;
+    private long records;
+    
+    // Appends so far, across compactions, and how many of them are known to be on disk
+    private volatile long appended;
+    private final Object syncLock = new Object();
+    private long synced;
+    private boolean syncing;
+    
+    ActiveSessionJournal(Path path, boolean fsync) {
+        this.path = path;
+        this.fsync = fsync;
+    }
+    
+    // Rebuilds the running sessions per user from the journal, returning the highest token seen
+    long replay(Map<Long, ActiveSession> sessions) throws IOException {
+        long maxToken = 0;
+        if (!Files.exists(path)) {
+            return maxToken;
+        }
+        
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                byte[] payload = readRecord(in);
+                if (payload == null) {
+                    break;
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                byte kind = record.readByte();
+                long token = record.readLong();
+                Long userId = record.readLong();
+                maxToken = Math.max(maxToken, -token);
+                
+                if (kind == STARTED) {
+                    String sessionType = record.readUTF();
+                    LocalDateTime startTime = LocalDateTime.ofEpochSecond(
+                            record.readLong(), record.readInt(), ZoneOffset.UTC);
+                    sessions.put(userId, new ActiveSession(token, userId, sessionType, startTime));
+                } else if (kind == ENDED) {
+                    ActiveSession current = sessions.get(userId);
+                    if (current != null && current.getToken() == token) {
+                        sessions.remove(userId);
+                    }
+                }
+            }
+        }
+        return maxToken;
+    }
+    
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            int crc = in.readInt();
+            return crc == checksum(payload) ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+    
+    // Rewrites the journal with just the given sessions, then keeps appending to the new file
+    void compact(Collection<ActiveSession> sessions) throws IOException {
+        synchronized (syncLock) {
+            awaitSync();
+            compactFile(sessions);
+            // The new file holds every session still running, and it has been forced
+            synced = appended;
+            syncLock.notifyAll();
+        }
+    }
+    
+    private void compactFile(Collection<ActiveSession> sessions) throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (ActiveSession session : sessions) {
+                write(out, started(session));
+            }
+            out.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        records = sessions.size();
+    }
+    
+    // Returns the append's sequence number, to pass to sync()
+    long appendStarted(ActiveSession session) throws IOException {
+        return append(started(session));
+    }
+    
+    long appendEnded(ActiveSession session) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(17);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(ENDED);
+        out.writeLong(session.getToken());
+        out.writeLong(session.getUserId());
+        return append(bytes.toByteArray());
+    }
+    
+    // Returns once the append with this sequence number is on disk
+    void sync(long sequence) throws IOException {
+        if (!fsync) {
+            return;
+        }
+        FileChannel forcing;
+        long target;
+        synchronized (syncLock) {
+            while (synced < sequence && syncing) {
+                waitForSync();
+            }
+            if (synced >= sequence) {
+                return;
+            }
+            syncing = true;
+            forcing = channel;
+            target = appended;
+        }
+        boolean forced = false;
+        try {
+            forcing.force(false);
+            forced = true;
+        } finally {
+            synchronized (syncLock) {
+                syncing = false;
+                if (forced) {
+                    synced = Math.max(synced, target);
+                }
+                syncLock.notifyAll();
+            }
+        }
+    }
+    
+    long getRecords() {
+        return records;
+    }
+    
+    void close() throws IOException {
+        synchronized (syncLock) {
+            awaitSync();
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+    
+    private long append(byte[] payload) throws IOException {
+        write(channel, payload);
+        records++;
+        return ++appended;
+    }
+    
+    // Called holding syncLock; the channel must not be swapped or closed under a running force
+    private void awaitSync() {
+        while (syncing) {
+            waitForSync();
+        }
+    }
+    
+    private void waitForSync() {
+        try {
+            syncLock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the session journal", e);
+        }
+    }
+    
+    private static byte[] started(ActiveSession session) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(STARTED);
+        out.writeLong(session.getToken());
+        out.writeLong(session.getUserId());
+        out.writeUTF(session.getSessionType());
+        out.writeLong(session.getStartTime().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(session.getStartTime().getNano());
+        return bytes.toByteArray();
+    }
+    
+    private static void write(FileChannel out, byte[] payload) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(payload.length + 8);
+        buffer.putInt(payload.length).put(payload).putInt(checksum(payload)).flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+    
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.SoloFocus.io.service;
+
+import com.example.SoloFocus.io.model.ActiveSession;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+// Sessions that have been started but not ended, at most one per user. Starting a session
+// costs a journal append instead of a database insert; the focus_sessions row is written
+// once, when the session ends. The journal is replayed on startup so running timers
+// survive a restart.
+@Component
+public class ActiveSessionRegistry {
+    
+    private static final Logger log = LoggerFactory.getLogger(ActiveSessionRegistry.class);
+    
+    static final int MAX_SESSION_TYPE_LENGTH = 255;
+    
+    private final Map<Long, ActiveSession> sessions = new HashMap<>();
+    private final ActiveSessionJournal journal;
+    private final long maxAgeHours;
+    private final long compactAfterRecords;
+    private long lastToken;
+    
+    @Autowired
+    public ActiveSessionRegistry(@Value("${solofocus.sessions.journal-path:data/active-sessions.journal}") String journalPath,
+                                 @Value("${solofocus.sessions.journal-fsync:true}") boolean journalFsync,
+                                 @Value("${solofocus.sessions.max-age-hours:24}") long maxAgeHours,
+                                 @Value("${solofocus.sessions.compact-after-records:10000}") long compactAfterRecords,
+                                 MeterRegistry meterRegistry) {
+        this.journal = new ActiveSessionJournal(Path.of(journalPath), journalFsync);
+        this.maxAgeHours = maxAgeHours;
+        this.compactAfterRecords = compactAfterRecords;
+        Gauge.builder("sessions.active", this, ActiveSessionRegistry::size).register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public synchronized void recover() {
+        try {
+            lastToken = journal.replay(sessions);
+            compact();
+            log.info("Recovered {} running sessions from the session journal", sessions.size());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not replay session journal", e);
+        }
+    }
+    
+    // Replaces any session the user already had running; abandoned sessions are never persisted.
+    // The journal is synced after the registry lock is released, so starts and ends arriving
+    // together share one fsync instead of queueing behind each other's.
+    public ActiveSession start(Long userId, String sessionType, LocalDateTime startTime) {
+        if (sessionType == null || sessionType.length() > MAX_SESSION_TYPE_LENGTH) {
+            throw new RuntimeException("Invalid session type");
+        }
+        
+        ActiveSession session;
+        long sequence;
+        synchronized (this) {
+            session = new ActiveSession(-(++lastToken), userId, sessionType, startTime);
+            try {
+                sequence = journal.appendStarted(session);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not record session start", e);
+            }
+            sessions.put(userId, session);
+            compactIfNeeded();
+        }
+        try {
+            journal.sync(sequence);
+        } catch (IOException e) {
+            synchronized (this) {
+                sessions.remove(userId, session);
+            }
+            throw new RuntimeException("Could not record session start", e);
+        }
+        return session;
+    }
+    
+    // Removes the user's running session if it matches the token. The caller reports back
+    // with ended() once the row is committed, or restore() if it was not.
+    public synchronized ActiveSession take(Long userId, long token) {
+        ActiveSession session = sessions.get(userId);
+        if (session == null || session.getToken() != token) {
+            return null;
+        }
+        sessions.remove(userId);
+        return session;
+    }
+    
+    public void ended(ActiveSession session) {
+        try {
+            long sequence;
+            synchronized (this) {
+                sequence = journal.appendEnded(session);
+                compactIfNeeded();
+            }
+            journal.sync(sequence);
+        } catch (IOException e) {
+            // The row is already committed; at worst the session reappears as running after a restart
+            log.warn("Could not record end of session {} in the session journal", session.getToken(), e);
+        }
+    }
+    
+    public synchronized void restore(ActiveSession session) {
+        sessions.putIfAbsent(session.getUserId(), session);
+    }
+    
+    public synchronized int size() {
+        return sessions.size();
+    }
+    
+    private void compactIfNeeded() {
+        if (journal.getRecords() < compactAfterRecords) {
+            return;
+        }
+        try {
+            compact();
+        } catch (IOException e) {
+            log.warn("Could not compact session journal", e);
+        }
+    }
+    
+    private void compact() throws IOException {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(maxAgeHours);
+        sessions.values().removeIf(session -> session.getStartTime().isBefore(cutoff));
+        journal.compact(sessions.values());
+    }
+    
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        journal.close();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.SoloFocus.io.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DashboardCacheInvalidator {
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    // Called once the user's statistics have been committed, so a concurrent dashboard
+    // request can never re-cache a snapshot that misses the new session
+    public void evict(Long userId) {
+        Cache cache = cacheManager.getCache(StatisticsService.DASHBOARD_CACHE);
+        if (cache != null) {
+            cache.evict(StatisticsService.dashboardCacheKey(userId));
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.SoloFocus.io.service;
+
+import com.example.SoloFocus.io.dto.DashboardDeltaDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Pushes dashboard changes to the open /dashboard/stream connections of each user. An idle
+// connection is only an SseEmitter and a parked async request, with no thread behind it.
+// Each connection holds at most one unsent update; newer ones are merged into it, so a slow
+// client costs one pending message instead of a growing queue. Writes run on
+// dashboardPushExecutor and block while a client is not reading, so stalled clients can
+// hold every push thread. Tomcat's write timeout (server.tomcat.connection-timeout) bounds
+// how long: the blocked send then fails and its stream is closed.
+@Component
+public class DashboardUpdatePublisher {
+    
+    private static final Object HEARTBEAT = new Object();
+    
+    private final ConcurrentHashMap<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    
+    private final TaskExecutor dashboardPushExecutor;
+    private final StatisticsService statisticsService;
+    private final long timeoutMillis;
+    private final int maxPerUser;
+    
+    private final Counter updatesSent;
+    private final Counter heartbeatsSent;
+    private final Counter coalesced;
+    private final Counter dropped;
+    
+    public DashboardUpdatePublisher(TaskExecutor dashboardPushExecutor,
+                                    StatisticsService statisticsService,
+                                    @Value("${solofocus.dashboard.stream-timeout-minutes:30}") long timeoutMinutes,
+                                    @Value("${solofocus.dashboard.stream-max-per-user:5}") int maxPerUser,
+                                    MeterRegistry meterRegistry) {
+        this.dashboardPushExecutor = dashboardPushExecutor;
+        this.statisticsService = statisticsService;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.maxPerUser = maxPerUser;
+        
+        Gauge.builder("dashboard.stream.connections", connections, AtomicInteger::get).register(meterRegistry);
+        this.updatesSent = meterRegistry.counter("dashboard.stream.sent", "type", "update");
+        this.heartbeatsSent = meterRegistry.counter("dashboard.stream.sent", "type", "heartbeat");
+        this.coalesced = meterRegistry.counter("dashboard.stream.coalesced");
+        this.dropped = meterRegistry.counter("dashboard.stream.dropped");
+    }
+    
+    // Opens a stream for the user. Past maxPerUser the user's oldest stream is closed.
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        
+        List<Subscriber> userSubscribers = subscribers.compute(userId, (id, list) -> {
+            List<Subscriber> updated = list != null ? list : new CopyOnWriteArrayList<>();
+            updated.add(subscriber);
+            return updated;
+        });
+        connections.incrementAndGet();
+        while (userSubscribers.size() > maxPerUser) {
+            Subscriber oldest = userSubscribers.get(0);
+            remove(oldest);
+            oldest.emitter.complete();
+        }
+        return emitter;
+    }
+    
+    // Called after the user's statistics were updated; the delta is only read if someone listens
+    public void publish(Long userId, Set<LocalDate> changedDays) {
+        List<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers == null || userSubscribers.isEmpty()) {
+            return;
+        }
+        DashboardDeltaDTO delta = statisticsService.getDashboardDelta(userId, changedDays);
+        for (Subscriber subscriber : userSubscribers) {
+            subscriber.offer(delta);
+        }
+    }
+    
+    // Comment lines keep proxies from closing idle streams and reveal dead connections
+    @Scheduled(fixedDelayString = "${solofocus.dashboard.stream-heartbeat-seconds:25}", timeUnit = TimeUnit.SECONDS)
+    public void heartbeat() {
+        for (List<Subscriber> userSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : userSubscribers) {
+                subscriber.offer(HEARTBEAT);
+            }
+        }
+    }
+    
+    public int getConnectionCount() {
+        return connections.get();
+    }
+    
+    @PreDestroy
+    public void closeAll() {
+        for (List<Subscriber> userSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : userSubscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+    
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, list) -> {
+            if (list.remove(subscriber)) {
+                connections.decrementAndGet();
+            }
+            return list.isEmpty() ? null : list;
+        });
+    }
+    
+    private final class Subscriber {
+        
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final AtomicReference<Object> pending = new AtomicReference<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+        
+        void offer(Object update) {
+            Object previous = pending.getAndUpdate(current -> merge(current, update));
+            if (previous instanceof DashboardDeltaDTO && update != HEARTBEAT) {
+                coalesced.increment();
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                dashboardPushExecutor.execute(this::drain);
+            }
+        }
+        
+        // A heartbeat never replaces an update, and unsent days are carried into the newer update
+        private Object merge(Object current, Object update) {
+            if (update == HEARTBEAT) {
+                return current != null ? current : HEARTBEAT;
+            }
+            if (current instanceof DashboardDeltaDTO older) {
+                return ((DashboardDeltaDTO) update).mergeAfter(older);
+            }
+            return update;
+        }
+        
+        private void drain() {
+            while (true) {
+                Object update = pending.getAndSet(null);
+                if (update == null) {
+                    scheduled.set(false);
+                    // An offer may have slipped in after getAndSet but before the flag was cleared
+                    if (pending.get() == null || !scheduled.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    if (update == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                        heartbeatsSent.increment();
+                    } else {
+                        emitter.send(SseEmitter.event().name("stats").data(update, MediaType.APPLICATION_JSON));
+                        updatesSent.increment();
+                    }
+                } catch (Exception e) {
+                    // The client is gone or the write timed out; the browser will reconnect
+                    dropped.increment();
+                    remove(this);
+                    pending.set(null);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,19 +1,45 @@
 package com.example.SoloFocus.io.service;
 
+import com.example.SoloFocus.io.auth.TokenSigner;
+import com.example.SoloFocus.io.dto.SessionPageDTO;
+import com.example.SoloFocus.io.dto.SessionRecordDTO;
+import com.example.SoloFocus.io.event.SessionCompletedEvent;
+import com.example.SoloFocus.io.model.ActiveSession;
 import com.example.SoloFocus.io.model.FocusSession;
 import com.example.SoloFocus.io.model.User;
 import com.example.SoloFocus.io.repository.FocusSessionRepository;
+import com.example.SoloFocus.io.repository.SessionArchiveRunRepository;
+import com.example.SoloFocus.io.repository.projection.SessionSummary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @Transactional
 public class FocusSessionService {
     
+    public static final int MAX_HISTORY_PAGE_SIZE = 100;
+    
+    // Bounds used when the history request leaves out a date; both fit a MySQL DATETIME
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 1, 1, 0, 0);
+    
     @Autowired
     private FocusSessionRepository focusSessionRepository;
     
@@ -21,42 +47,260 @@ public class FocusSessionService {
     private UserService userService;
     
     @Autowired
-    private StatisticsService statisticsService;
+    private ApplicationEventPublisher eventPublisher;
     
-    public FocusSession startSession(Long userId, String sessionType) {
-        User user = userService.findById(userId);
-        FocusSession session = new FocusSession(user, LocalDateTime.now(), sessionType);
-        return focusSessionRepository.save(session);
+    @Autowired
+    private ActiveSessionRegistry activeSessionRegistry;
+    
+    // Absent under the eventlog profile, which never archives
+    @Autowired(required = false)
+    private SessionArchiveRunRepository sessionArchiveRunRepository;
+    
+    // Present only under the stateless profile, where running sessions are signed instead
+    @Autowired(required = false)
+    private TokenSigner tokenSigner;
+    
+    @Value("${solofocus.sessions.max-age-hours:24}")
+    private long maxSessionAgeHours;
+    
+    // Running sessions are held in the registry and journaled; nothing touches the database.
+    // Under the stateless profile nothing is held at all: the client carries the session.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ActiveSession startSession(Long userId, String sessionType) {
+        if (tokenSigner != null) {
+            if (sessionType == null || sessionType.length() > ActiveSessionRegistry.MAX_SESSION_TYPE_LENGTH) {
+                throw new RuntimeException("Invalid session type");
+            }
+            // Millisecond precision, so the start time survives the round trip through the token exactly
+            return new ActiveSession(0, userId, sessionType, LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        }
+        return activeSessionRegistry.start(userId, sessionType, LocalDateTime.now());
+    }
+    
+    // What the client sends back to end the session
+    public String getSessionId(ActiveSession session) {
+        return tokenSigner != null ? tokenSigner.issueSession(session) : String.valueOf(session.getToken());
     }
     
-    public FocusSession endSession(Long sessionId, Integer durationMinutes) {
-        FocusSession session = focusSessionRepository.findById(sessionId)
+    // Negative ids are running sessions from the registry; positive ids are already persisted.
+    // Anything else is a signed running session under the stateless profile.
+    public FocusSession endSession(Long userId, String sessionId, Integer durationMinutes) {
+        long id;
+        try {
+            id = Long.parseLong(sessionId);
+        } catch (NumberFormatException e) {
+            if (tokenSigner == null) {
+                throw new RuntimeException("Session not found");
+            }
+            return endSignedSession(userId, sessionId, durationMinutes);
+        }
+        if (id < 0) {
+            return endActiveSession(userId, id, durationMinutes);
+        }
+        
+        // Another user's session is reported as missing, so ids cannot be probed
+        FocusSession session = focusSessionRepository.findById(id)
+                .filter(found -> found.getUser().getId().equals(userId))
                 .orElseThrow(() -> new RuntimeException("Session not found"));
         
+        // Remember what was already counted in case the session is ended twice
+        Integer previousMinutes = session.getEndTime() != null ? session.getDurationMinutes() : null;
+        
         session.setEndTime(LocalDateTime.now());
         session.setDurationMinutes(durationMinutes);
         
         FocusSession savedSession = focusSessionRepository.save(session);
         
-        // Update user statistics
-        statisticsService.updateUserStatistics(savedSession.getUser().getId());
+        // User statistics are updated in the background once this transaction commits
+        eventPublisher.publishEvent(new SessionCompletedEvent(
+                savedSession.getUser().getId(), savedSession.getId(), durationMinutes, previousMinutes));
+        
+        return savedSession;
+    }
+    
+    // Writes the session's only row. It leaves the journal once the insert commits,
+    // and goes back into the registry if the transaction rolls back so the client can retry.
+    private FocusSession endActiveSession(Long userId, long token, Integer durationMinutes) {
+        ActiveSession active = activeSessionRegistry.take(userId, token);
+        if (active == null) {
+            throw new RuntimeException("Session not found");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    activeSessionRegistry.ended(active);
+                } else {
+                    activeSessionRegistry.restore(active);
+                }
+            }
+        });
+        
+        FocusSession session = new FocusSession(userService.getReference(userId),
+                active.getStartTime(), active.getSessionType());
+        session.setEndTime(LocalDateTime.now());
+        session.setDurationMinutes(durationMinutes);
+        
+        FocusSession savedSession = focusSessionRepository.save(session);
+        
+        eventPublisher.publishEvent(new SessionCompletedEvent(userId, savedSession.getId(), durationMinutes, null));
+        
+        return savedSession;
+    }
+    
+    // Any node may end a signed session, so a token ended twice is caught by its row instead of
+    // by a registry. The user row lock orders concurrent attempts with the same token.
+    private FocusSession endSignedSession(Long userId, String token, Integer durationMinutes) {
+        ActiveSession active = tokenSigner.verifySession(token, userId);
+        LocalDateTime now = LocalDateTime.now();
+        if (active == null || active.getStartTime().isAfter(now)
+                || active.getStartTime().isBefore(now.minusHours(maxSessionAgeHours))) {
+            throw new RuntimeException("Session not found");
+        }
+        
+        User user = userService.findByIdForUpdate(userId);
+        if (!focusSessionRepository.findByUserAndStartTimeBetween(user, active.getStartTime(), active.getStartTime()).isEmpty()) {
+            throw new RuntimeException("Session already ended");
+        }
+        
+        FocusSession session = new FocusSession(user, active.getStartTime(), active.getSessionType());
+        session.setEndTime(now);
+        session.setDurationMinutes(durationMinutes);
+        
+        FocusSession savedSession = focusSessionRepository.save(session);
+        
+        eventPublisher.publishEvent(new SessionCompletedEvent(userId, savedSession.getId(), durationMinutes, null));
         
         return savedSession;
     }
     
+    // Records finished sessions in one transaction. Ids come from the pooled generator, so
+    // the inserts are flushed as JDBC batches instead of one round trip per session.
+    // A session is identified by its user and start time: one already stored, e.g. by a
+    // retried upload, is skipped rather than counted twice. The user row lock keeps two
+    // uploads of the same sessions from both getting past that check.
+    public List<FocusSession> recordSessions(Long userId, List<SessionRecordDTO> records) {
+        User user = userService.findByIdForUpdate(userId);
+        
+        // Start times are stored to the microsecond, so they are compared at that precision
+        LocalDateTime first = null;
+        LocalDateTime last = null;
+        for (SessionRecordDTO record : records) {
+            LocalDateTime start = record.getStartTime().truncatedTo(ChronoUnit.MICROS);
+            first = first == null || start.isBefore(first) ? start : first;
+            last = last == null || start.isAfter(last) ? start : last;
+        }
+        Set<LocalDateTime> recorded = new HashSet<>();
+        if (first != null) {
+            for (FocusSession existing : focusSessionRepository.findByUserAndStartTimeBetween(user, first, last)) {
+                recorded.add(existing.getStartTime());
+            }
+        }
+        
+        List<FocusSession> sessions = new ArrayList<>(records.size());
+        for (SessionRecordDTO record : records) {
+            LocalDateTime start = record.getStartTime().truncatedTo(ChronoUnit.MICROS);
+            if (!recorded.add(start)) {
+                continue;
+            }
+            FocusSession session = new FocusSession(user, start, record.getSessionType());
+            session.setDurationMinutes(record.getDurationMinutes());
+            session.setEndTime(record.getEndTime() != null
+                    ? record.getEndTime()
+                    : start.plusMinutes(record.getDurationMinutes()));
+            sessions.add(session);
+        }
+        
+        List<FocusSession> savedSessions = focusSessionRepository.saveAll(sessions);
+        for (FocusSession session : savedSessions) {
+            eventPublisher.publishEvent(new SessionCompletedEvent(
+                    userId, session.getId(), session.getDurationMinutes(), null));
+        }
+        return savedSessions;
+    }
+    
+    // Raw sessions only; days before getArchivedBefore() survive only in the daily rollup
+    @Transactional(readOnly = true)
     public List<FocusSession> getUserSessions(Long userId) {
         User user = userService.findById(userId);
         return focusSessionRepository.findByUserOrderByStartTimeDesc(user);
     }
     
+    @Transactional(readOnly = true)
     public List<FocusSession> getSessionsByDateRange(Long userId, LocalDateTime start, LocalDateTime end) {
         User user = userService.findById(userId);
         return focusSessionRepository.findByUserAndStartTimeBetween(user, start, end);
     }
     
+    // A page of the user's history, newest first, optionally limited to one session type and
+    // to the days from..to (inclusive). The cursor is the last row of the previous page, so
+    // pages stay stable while new sessions are recorded and no rows are skipped with OFFSET.
+    @Transactional(readOnly = true)
+    public SessionPageDTO getSessionHistory(Long userId, String sessionType, LocalDate from, LocalDate to,
+                                            HistoryCursor cursor, int pageSize) {
+        int size = Math.max(1, Math.min(pageSize, MAX_HISTORY_PAGE_SIZE));
+        LocalDateTime start = from != null ? from.atStartOfDay() : EARLIEST;
+        LocalDateTime beforeStart = to != null ? to.plusDays(1).atStartOfDay() : LATEST;
+        long beforeId = Long.MIN_VALUE;
+        if (cursor != null && cursor.startTime.isBefore(beforeStart)) {
+            beforeStart = cursor.startTime;
+            beforeId = cursor.id;
+        }
+        
+        // Archived sessions are gone from focus_sessions, so the client is told the range is partial
+        LocalDate archivedBefore = getArchivedBefore();
+        if (archivedBefore != null && !start.isBefore(archivedBefore.atStartOfDay())) {
+            archivedBefore = null;
+        }
+        
+        // One extra row tells whether another page follows without a count query
+        List<SessionSummary> rows = focusSessionRepository.findHistoryPage(
+                userId, sessionType, start, beforeStart, beforeId, Limit.of(size + 1));
+        if (rows.size() <= size) {
+            return new SessionPageDTO(rows, null, archivedBefore);
+        }
+        List<SessionSummary> page = new ArrayList<>(rows.subList(0, size));
+        SessionSummary last = page.get(size - 1);
+        return new SessionPageDTO(page, new HistoryCursor(last.getStartTime(), last.getId()).encode(), archivedBefore);
+    }
+    
+    // First day whose sessions are still in focus_sessions, or null if none were archived
+    @Transactional(readOnly = true)
+    public LocalDate getArchivedBefore() {
+        return sessionArchiveRunRepository != null ? sessionArchiveRunRepository.findArchivedBefore() : null;
+    }
+    
+    @Transactional(readOnly = true)
     public FocusSession getSessionById(Long sessionId) {
         return focusSessionRepository.findById(sessionId)
                 .orElseThrow(() -> new RuntimeException("Session not found"));
     }
+    
+    // Position after the last row of a history page, sent to clients as an opaque string
+    public static final class HistoryCursor {
+        
+        private final LocalDateTime startTime;
+        private final long id;
+        
+        HistoryCursor(LocalDateTime startTime, long id) {
+            this.startTime = startTime;
+            this.id = id;
+        }
+        
+        public static HistoryCursor from(String value) {
+            try {
+                String key = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int separator = key.indexOf('_');
+                return new HistoryCursor(LocalDateTime.parse(key.substring(0, separator)),
+                        Long.parseLong(key.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor: " + value);
+            }
+        }
+        
+        String encode() {
+            String key = startTime + "_" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+    }
 }
-
@@ -0,0 +1,363 @@
+package com.example.SoloFocus.io.service;
+
+import com.example.SoloFocus.io.dto.LeaderboardDTO;
+import com.example.SoloFocus.io.model.RankedIndex;
+import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.model.UserDailyFocus;
+import com.example.SoloFocus.io.repository.UserDailyFocusRepository;
+import com.example.SoloFocus.io.repository.UserRepository;
+import com.example.SoloFocus.io.repository.projection.UserFocusTotal;
+import com.example.SoloFocus.io.repository.projection.UserStanding;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Users ranked by total focus time, current streak and this week's focus time, held in
+// memory so top lists and a user's rank cost O(log n) instead of a sort over users.
+// Fed by the statistics worker after each update and rebuilt from the database at startup.
+// Only users with a score above zero are in a board; everyone else shares the last rank.
+@Service
+public class LeaderboardService {
+    
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+    
+    public enum Board {
+        TOTAL, STREAK, WEEK;
+        
+        public static Board from(String name) {
+            for (Board board : values()) {
+                if (board.name().equalsIgnoreCase(name)) {
+                    return board;
+                }
+            }
+            throw new RuntimeException("Unknown leaderboard: " + name);
+        }
+    }
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Standing> standings = new HashMap<>();
+    private final RankedIndex total = new RankedIndex();
+    private final RankedIndex streak = new RankedIndex();
+    private final RankedIndex week = new RankedIndex();
+    private LocalDate today = LocalDate.now();
+    private LocalDate weekStart = startOfWeek(today);
+    private volatile boolean loaded;
+    
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final UserDailyFocusRepository userDailyFocusRepository;
+    private final int rebuildPageSize;
+    private final int maxLimit;
+    
+    @Autowired
+    public LeaderboardService(UserService userService,
+                              UserRepository userRepository,
+                              UserDailyFocusRepository userDailyFocusRepository,
+                              @Value("${solofocus.leaderboard.rebuild-page-size:10000}") int rebuildPageSize,
+                              @Value("${solofocus.leaderboard.max-limit:100}") int maxLimit,
+                              MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.userRepository = userRepository;
+        this.userDailyFocusRepository = userDailyFocusRepository;
+        this.rebuildPageSize = rebuildPageSize;
+        this.maxLimit = maxLimit;
+        Gauge.builder("leaderboard.users", this, LeaderboardService::size).register(meterRegistry);
+    }
+    
+    // Loads every user's standing page by page. Updates that arrive meanwhile are kept
+    // when they are newer, since each standing carries the statistics version it came from.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        LocalDate firstDay;
+        lock.writeLock().lock();
+        try {
+            rollover(LocalDate.now());
+            firstDay = weekStart;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Map<Long, Long> weekMinutes = new HashMap<>();
+        for (UserFocusTotal user : userDailyFocusRepository.sumByUserBetween(firstDay, firstDay.plusDays(6))) {
+            weekMinutes.put(user.getUserId(), user.getMinutes());
+        }
+        
+        long afterId = 0;
+        int users = 0;
+        while (true) {
+            List<UserStanding> page = userRepository.findStandingsAfter(afterId, PageRequest.of(0, rebuildPageSize));
+            lock.writeLock().lock();
+            try {
+                for (UserStanding user : page) {
+                    apply(user.getId(), user.getStatisticsVersion(), user.getTotalFocusHours(),
+                            user.getCurrentStreak(), user.getLastSessionTime(), weekMinutes.getOrDefault(user.getId(), 0L));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            users += page.size();
+            if (page.size() < rebuildPageSize) {
+                break;
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+        
+        loaded = true;
+        log.info("Leaderboard rebuilt from {} users in {} ms", users,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+    
+    // Called after the user's statistics changed. Runs in a read-write transaction so it reads
+    // the primary and sees the update that was just committed. This week's minutes are only
+    // summed again when one of the changed days falls in this week, or for a user not held yet;
+    // null changedDays means any day may have changed.
+    @Transactional
+    public void refresh(Long userId, Set<LocalDate> changedDays) {
+        User user = userService.findById(userId);
+        
+        LocalDate firstDay = startOfWeek(LocalDate.now());
+        LocalDate lastDay = firstDay.plusDays(6);
+        long weekMinutes = -1;
+        if (changedDays == null || !isHeld(userId)
+                || changedDays.stream().anyMatch(day -> !day.isBefore(firstDay) && !day.isAfter(lastDay))) {
+            weekMinutes = 0;
+            for (UserDailyFocus day : userDailyFocusRepository.findByUserIdAndFocusDateBetween(userId, firstDay, lastDay)) {
+                weekMinutes += day.getPomodoroMinutes();
+            }
+        }
+        
+        lock.writeLock().lock();
+        try {
+            rollover(LocalDate.now());
+            // Minutes read for a week that has just ended must not land on the new one
+            if (!firstDay.equals(weekStart)) {
+                weekMinutes = -1;
+            }
+            apply(userId, user.getStatisticsVersion(), user.getTotalFocusHours(), user.getCurrentStreak(),
+                    user.getLastSessionTime(), weekMinutes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Ends streaks that were not continued yesterday and clears the weekly board on Mondays.
+    // Queries also roll over on their own, so this only moves the work off a request.
+    @Scheduled(cron = "${solofocus.leaderboard.rollover-cron:0 0 0 * * *}")
+    public void rolloverAtMidnight() {
+        lock.writeLock().lock();
+        try {
+            rollover(LocalDate.now());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // The top entries of a board together with the given user's own rank
+    public LeaderboardDTO getLeaderboard(Board board, Long userId, int limit) {
+        int count = Math.max(1, Math.min(limit, maxLimit));
+        LocalDate now = LocalDate.now();
+        if (!now.equals(currentDay())) {
+            rolloverAtMidnight();
+        }
+        
+        long[] top;
+        long myScore;
+        int myRank;
+        int rankedUsers;
+        lock.readLock().lock();
+        try {
+            RankedIndex index = index(board);
+            top = index.range(0, count);
+            Standing mine = standings.get(userId);
+            myScore = mine != null ? score(board, mine) : 0;
+            myRank = index.countAbove(myScore) + 1;
+            rankedUsers = index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        // Usernames are looked up for the listed users only
+        List<Long> ids = new ArrayList<>(top.length / 2);
+        for (int i = 1; i < top.length; i += 2) {
+            ids.add(top[i]);
+        }
+        Map<Long, String> usernames = new HashMap<>();
+        for (User user : userRepository.findAllById(ids)) {
+            usernames.put(user.getId(), user.getUsername());
+        }
+        
+        // Equal scores share a rank, and the next score's rank counts everyone above it
+        List<LeaderboardDTO.Entry> entries = new ArrayList<>(ids.size());
+        int rank = 0;
+        for (int i = 0; i < top.length; i += 2) {
+            if (i == 0 || top[i] != top[i - 2]) {
+                rank = i / 2 + 1;
+            }
+            entries.add(new LeaderboardDTO.Entry(rank, usernames.get(top[i + 1]), top[i], top[i + 1] == userId));
+        }
+        return new LeaderboardDTO(board.name().toLowerCase(), entries, myRank, myScore, rankedUsers);
+    }
+    
+    public boolean isLoaded() {
+        return loaded;
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return standings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private boolean isHeld(Long userId) {
+        lock.readLock().lock();
+        try {
+            return standings.containsKey(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private LocalDate currentDay() {
+        lock.readLock().lock();
+        try {
+            return today;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Replaces the user's standing unless the one held is from a newer statistics version.
+    // A negative weekMinutes keeps the weekly figure already held. Caller holds the write lock.
+    private void apply(Long userId, Long version, Double totalHours, Integer storedStreak,
+                       LocalDateTime lastSessionTime, long weekMinutes) {
+        Standing previous = standings.get(userId);
+        long statisticsVersion = version != null ? version : 0L;
+        if (previous != null && statisticsVersion < previous.version) {
+            return;
+        }
+        
+        Standing next = new Standing();
+        next.version = statisticsVersion;
+        next.totalMinutes = totalHours != null ? Math.round(totalHours * 60) : 0;
+        next.streak = storedStreak != null ? storedStreak : 0;
+        next.lastActiveDay = lastSessionTime != null ? lastSessionTime.toLocalDate().toEpochDay() : Long.MIN_VALUE;
+        next.weekMinutes = weekMinutes >= 0 ? weekMinutes : previous != null ? previous.weekMinutes : 0;
+        
+        for (Board board : Board.values()) {
+            long before = previous != null ? score(board, previous) : 0;
+            long after = score(board, next);
+            if (before != after) {
+                RankedIndex index = index(board);
+                if (before > 0) {
+                    index.remove(before, userId);
+                }
+                if (after > 0) {
+                    index.insert(after, userId);
+                }
+            }
+        }
+        
+        // Users with nothing to rank are not held; they come back with their next update
+        if (next.totalMinutes > 0 || next.weekMinutes > 0 || score(Board.STREAK, next) > 0) {
+            standings.put(userId, next);
+        } else {
+            standings.remove(userId);
+        }
+    }
+    
+    // Moves the boards to the given day. Caller holds the write lock.
+    private void rollover(LocalDate day) {
+        if (!day.isAfter(today)) {
+            return;
+        }
+        LocalDate nextWeekStart = startOfWeek(day);
+        boolean newWeek = !nextWeekStart.equals(weekStart);
+        
+        // Streak scores depend on today, so streaks that end are taken out while the old
+        // day still applies. This walks every held user, once a day.
+        List<Long> expired = new ArrayList<>();
+        for (Map.Entry<Long, Standing> entry : standings.entrySet()) {
+            long before = score(Board.STREAK, entry.getValue());
+            if (before > 0 && entry.getValue().lastActiveDay < day.minusDays(1).toEpochDay()) {
+                streak.remove(before, entry.getKey());
+                expired.add(entry.getKey());
+            }
+        }
+        if (newWeek) {
+            week.clear();
+        }
+        
+        today = day;
+        weekStart = nextWeekStart;
+        
+        Iterator<Map.Entry<Long, Standing>> entries = standings.entrySet().iterator();
+        while (entries.hasNext()) {
+            Standing standing = entries.next().getValue();
+            if (newWeek) {
+                standing.weekMinutes = 0;
+            }
+            if (standing.totalMinutes == 0 && standing.weekMinutes == 0 && score(Board.STREAK, standing) == 0) {
+                entries.remove();
+            }
+        }
+        if (!expired.isEmpty() || newWeek) {
+            log.info("Leaderboard rolled over to {}: {} streaks ended{}", day, expired.size(),
+                    newWeek ? ", weekly board cleared" : "");
+        }
+    }
+    
+    private RankedIndex index(Board board) {
+        return switch (board) {
+            case TOTAL -> total;
+            case STREAK -> streak;
+            case WEEK -> week;
+        };
+    }
+    
+    // Same rule as StatisticsService.getEffectiveStreak: a streak not continued by yesterday is over
+    private long score(Board board, Standing standing) {
+        return switch (board) {
+            case TOTAL -> standing.totalMinutes;
+            case STREAK -> standing.lastActiveDay >= today.minusDays(1).toEpochDay() ? standing.streak : 0;
+            case WEEK -> standing.weekMinutes;
+        };
+    }
+    
+    private static LocalDate startOfWeek(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+    
+    private static final class Standing {
+        private long version;
+        private long totalMinutes;
+        private int streak;
+        private long lastActiveDay;
+        private long weekMinutes;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.SoloFocus.io.service;
+
+import com.example.SoloFocus.io.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Users already looked up during the current web request, kept as a request attribute so a
+// request loads each user at most once across its transactions. The instances are detached
+// once the transaction that loaded them ends; anything that changes a user goes through
+// UserService, which refreshes or drops the entry. Outside a request nothing is cached.
+@Component
+public class RequestUserCache {
+    
+    private static final String ATTRIBUTE = RequestUserCache.class.getName();
+    
+    private final Counter hits;
+    private final Counter misses;
+    
+    public RequestUserCache(MeterRegistry meterRegistry) {
+        this.hits = meterRegistry.counter("users.request.cache", "result", "hit");
+        this.misses = meterRegistry.counter("users.request.cache", "result", "miss");
+    }
+    
+    public User get(Long id, Supplier<User> loader) {
+        Map<Long, User> users = users();
+        if (users == null) {
+            return loader.get();
+        }
+        User user = users.get(id);
+        if (user != null) {
+            hits.increment();
+            return user;
+        }
+        misses.increment();
+        user = loader.get();
+        users.put(id, user);
+        return user;
+    }
+    
+    // A change that is rolled back must not outlive its transaction in the request copy
+    public void put(User user) {
+        Map<Long, User> users = users();
+        if (users == null || user.getId() == null) {
+            return;
+        }
+        users.put(user.getId(), user);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        users.remove(user.getId());
+                    }
+                }
+            });
+        }
+    }
+    
+    public void evict(Long id) {
+        Map<Long, User> users = users();
+        if (users != null) {
+            users.remove(id);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<Long, User> users() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<Long, User> users = (Map<Long, User>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (users == null) {
+            users = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, users, RequestAttributes.SCOPE_REQUEST);
+        }
+        return users;
+    }
+}
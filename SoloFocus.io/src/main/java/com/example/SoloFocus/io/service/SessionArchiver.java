@@ -0,0 +1,188 @@
+package com.example.SoloFocus.io.service;
+
+import com.example.SoloFocus.io.model.SessionArchiveRun;
+import com.example.SoloFocus.io.repository.FocusSessionRepository;
+import com.example.SoloFocus.io.repository.SessionArchiveRunRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// Moves sessions older than the retention window out of focus_sessions so the table only
+// holds recent months. Each run archives whole months: the rollup rows of the users with
+// sessions in those months are first rebuilt from the sessions, the run is recorded, and only
+// then are the sessions removed. A run that dies halfway is finished by the next one, since
+// statistics stop reading raw sessions before archivedBefore as soon as the run is recorded.
+// With the partitioned profile each month is a partition, added ahead of time and dropped
+// when archived; otherwise the rows are deleted user by user.
+@Component
+@Profile("!eventlog")
+public class SessionArchiver {
+    
+    private static final Logger log = LoggerFactory.getLogger(SessionArchiver.class);
+    
+    private static final LocalDate EARLIEST_DAY = LocalDate.of(1970, 1, 1);
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    
+    private final FocusSessionRepository focusSessionRepository;
+    private final SessionArchiveRunRepository sessionArchiveRunRepository;
+    private final StatisticsService statisticsService;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int retentionMonths;
+    private final boolean partitioned;
+    private final int partitionsAhead;
+    
+    private final Counter sessionsRemoved;
+    private final Counter usersCompacted;
+    
+    public SessionArchiver(FocusSessionRepository focusSessionRepository,
+                           SessionArchiveRunRepository sessionArchiveRunRepository,
+                           StatisticsService statisticsService,
+                           JdbcTemplate jdbcTemplate,
+                           @Value("${solofocus.archive.enabled:false}") boolean enabled,
+                           @Value("${solofocus.archive.retention-months:12}") int retentionMonths,
+                           @Value("${solofocus.archive.partitioned:false}") boolean partitioned,
+                           @Value("${solofocus.archive.partitions-ahead:3}") int partitionsAhead,
+                           MeterRegistry meterRegistry) {
+        // The hourly chart reads the last 30 days of raw sessions
+        if (retentionMonths < 2) {
+            throw new IllegalArgumentException("solofocus.archive.retention-months must be at least 2");
+        }
+        this.focusSessionRepository = focusSessionRepository;
+        this.sessionArchiveRunRepository = sessionArchiveRunRepository;
+        this.statisticsService = statisticsService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.retentionMonths = retentionMonths;
+        this.partitioned = partitioned;
+        this.partitionsAhead = partitionsAhead;
+        
+        this.sessionsRemoved = meterRegistry.counter("sessions.archived.rows");
+        this.usersCompacted = meterRegistry.counter("sessions.archived.users");
+    }
+    
+    @Scheduled(cron = "${solofocus.archive.cron:0 30 3 * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        archive(LocalDate.now());
+    }
+    
+    // Archives every month that ended more than retentionMonths months before today
+    public void archive(LocalDate today) {
+        if (partitioned) {
+            addMonthPartitions(today);
+        }
+        
+        LocalDate cutoff = today.withDayOfMonth(1).minusMonths(retentionMonths);
+        LocalDate archivedBefore = sessionArchiveRunRepository.findArchivedBefore();
+        if (archivedBefore == null || cutoff.isAfter(archivedBefore)) {
+            long started = System.nanoTime();
+            LocalDate from = archivedBefore != null ? archivedBefore : EARLIEST_DAY;
+            List<Long> userIds = focusSessionRepository.findUserIdsWithSessionsBetween(
+                    from.atStartOfDay(), cutoff.atStartOfDay());
+            for (Long userId : userIds) {
+                statisticsService.compactDailyFocus(userId, from, cutoff);
+                usersCompacted.increment();
+            }
+            
+            SessionArchiveRun run = sessionArchiveRunRepository.save(new SessionArchiveRun(cutoff, userIds.size()));
+            archivedBefore = cutoff;
+            log.info("Compacted sessions from {} to {} for {} users in {} ms", from, cutoff, userIds.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            
+            removeSessions(archivedBefore, run);
+        } else if (partitioned) {
+            // Also finishes a run that was recorded but died before its partitions were dropped
+            dropMonthPartitions(archivedBefore);
+        }
+    }
+    
+    private void removeSessions(LocalDate archivedBefore, SessionArchiveRun run) {
+        long removed = 0;
+        int dropped = 0;
+        if (partitioned) {
+            removed = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM focus_sessions WHERE start_time < ?", Long.class, archivedBefore.atStartOfDay());
+            dropped = dropMonthPartitions(archivedBefore);
+        } else {
+            // Sessions recorded late for days archived earlier are picked up here as well
+            for (Long userId : focusSessionRepository.findUserIdsWithSessionsBetween(
+                    EARLIEST_DAY.atStartOfDay(), archivedBefore.atStartOfDay())) {
+                removed += focusSessionRepository.deleteByUserIdAndStartTimeBefore(userId, archivedBefore.atStartOfDay());
+            }
+        }
+        sessionsRemoved.increment(removed);
+        run.setSessionsRemoved(removed);
+        run.setPartitionsDropped(dropped);
+        sessionArchiveRunRepository.save(run);
+        log.info("Archived {} sessions before {} ({} partitions dropped)", removed, archivedBefore, dropped);
+    }
+    
+    // Drops the partitions that only hold days before archivedBefore
+    private int dropMonthPartitions(LocalDate archivedBefore) {
+        List<String> names = new ArrayList<>(monthPartitions().headMap(archivedBefore, true).values());
+        if (names.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.execute("ALTER TABLE focus_sessions DROP PARTITION " + String.join(", ", names));
+        return names.size();
+    }
+    
+    // Splits p_future so every month up to partitionsAhead months from now has its own partition.
+    // The first time, the oldest month present holds everything before it as well.
+    private void addMonthPartitions(LocalDate today) {
+        TreeMap<LocalDate, String> partitions = monthPartitions();
+        LocalDate next;
+        if (partitions.isEmpty()) {
+            LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(start_time) FROM focus_sessions", LocalDateTime.class);
+            next = (oldest != null ? oldest.toLocalDate() : today).withDayOfMonth(1).plusMonths(1);
+        } else {
+            next = partitions.lastKey().plusMonths(1);
+        }
+        LocalDate last = today.withDayOfMonth(1).plusMonths(partitionsAhead + 1);
+        if (next.isAfter(last)) {
+            return;
+        }
+        
+        StringBuilder ddl = new StringBuilder("ALTER TABLE focus_sessions REORGANIZE PARTITION p_future INTO (");
+        for (LocalDate bound = next; !bound.isAfter(last); bound = bound.plusMonths(1)) {
+            ddl.append("PARTITION ").append(bound.minusMonths(1).format(PARTITION_NAME))
+                    .append(" VALUES LESS THAN ('").append(bound).append("'), ");
+        }
+        ddl.append("PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+        jdbcTemplate.execute(ddl.toString());
+        log.info("Added focus_sessions partitions up to {}", last);
+    }
+    
+    // Month partitions by their exclusive upper bound; p_future has none and is left out
+    private TreeMap<LocalDate, String> monthPartitions() {
+        TreeMap<LocalDate, String> partitions = new TreeMap<>();
+        for (Map<String, Object> partition : jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME AS name, PARTITION_DESCRIPTION AS bound FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'focus_sessions' AND PARTITION_NAME IS NOT NULL")) {
+            String bound = (String) partition.get("bound");
+            if (!"MAXVALUE".equals(bound)) {
+                // RANGE COLUMNS bounds read back as quoted literals, e.g. '2026-11-01 00:00:00'
+                partitions.put(LocalDate.parse(bound.replace("'", "").substring(0, 10)), (String) partition.get("name"));
+            }
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.SoloFocus.io.service;
+
+import com.example.SoloFocus.io.dto.SessionExportDTO;
+import com.example.SoloFocus.io.repository.FocusSessionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Writes a user's session history to an output stream as it is read from the database.
+// The result is streamed, so only the current row is in memory, whatever the history size.
+// Sessions removed by SessionArchiver are not included.
+@Service
+public class SessionExportService {
+    
+    public enum Format {
+        CSV, NDJSON;
+        
+        public static Format from(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new RuntimeException("Unknown export format: " + name);
+        }
+    }
+    
+    private static final String CSV_HEADER = "id,start_time,end_time,duration_minutes,session_type,created_at";
+    
+    private final FocusSessionRepository focusSessionRepository;
+    private final ObjectMapper objectMapper;
+    private final Counter exportedRows;
+    
+    @Autowired
+    public SessionExportService(FocusSessionRepository focusSessionRepository,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        this.focusSessionRepository = focusSessionRepository;
+        this.objectMapper = objectMapper;
+        this.exportedRows = meterRegistry.counter("sessions.exported.rows");
+    }
+    
+    // Holds a read-only transaction, and so one connection, until the last row is written
+    @Transactional(readOnly = true)
+    public long export(Long userId, Format format, OutputStream out) throws IOException {
+        try (Stream<SessionExportDTO> sessions = focusSessionRepository.streamExportByUserId(userId)) {
+            long rows = format == Format.CSV ? writeCsv(sessions.iterator(), out) : writeNdjson(sessions.iterator(), out);
+            exportedRows.increment(rows);
+            return rows;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private long writeCsv(Iterator<SessionExportDTO> sessions, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long rows = 0;
+        while (sessions.hasNext()) {
+            SessionExportDTO session = sessions.next();
+            writer.write(String.valueOf(session.getId()));
+            writer.write(',');
+            writer.write(csvTime(session.getStartTime()));
+            writer.write(',');
+            writer.write(csvTime(session.getEndTime()));
+            writer.write(',');
+            writer.write(session.getDurationMinutes() != null ? session.getDurationMinutes().toString() : "");
+            writer.write(',');
+            writer.write(csvText(session.getSessionType()));
+            writer.write(',');
+            writer.write(csvTime(session.getCreatedAt()));
+            writer.write('\n');
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+    
+    private long writeNdjson(Iterator<SessionExportDTO> sessions, OutputStream out) throws IOException {
+        long rows = 0;
+        // The response stream is left open; the servlet container closes it
+        try (SequenceWriter writer = objectMapper.writerFor(SessionExportDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            while (sessions.hasNext()) {
+                writer.write(sessions.next());
+                rows++;
+            }
+        }
+        // The separator only goes between values, so the last line is ended here
+        if (rows > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        return rows;
+    }
+    
+    private static String csvTime(LocalDateTime time) {
+        return time != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time) : "";
+    }
+    
+    // Session types come from the client: quote anything with separators, and keep
+    // spreadsheet programs from reading a leading =, +, - or @ as a formula
+    private static String csvText(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
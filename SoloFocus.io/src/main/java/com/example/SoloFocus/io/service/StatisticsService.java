@@ -1,21 +1,39 @@
 package com.example.SoloFocus.io.service;
 
+import com.example.SoloFocus.io.dto.DashboardDeltaDTO;
+import com.example.SoloFocus.io.dto.DashboardSnapshot;
+import com.example.SoloFocus.io.event.SessionCompletedEvent;
+import com.example.SoloFocus.io.model.ActivityBitmap;
 import com.example.SoloFocus.io.model.FocusSession;
 import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.model.UserDailyFocus;
 import com.example.SoloFocus.io.repository.FocusSessionRepository;
+import com.example.SoloFocus.io.repository.SessionArchiveRunRepository;
+import com.example.SoloFocus.io.repository.UserDailyFocusRepository;
+import com.example.SoloFocus.io.repository.projection.DailyFocusTotal;
+import com.example.SoloFocus.io.repository.projection.HourlyFocusTotal;
+import com.example.SoloFocus.io.repository.projection.MonthlyFocusTotal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @Transactional
@@ -24,82 +42,189 @@ public class StatisticsService {
     @Autowired
     private FocusSessionRepository focusSessionRepository;
     
+    @Autowired
+    private UserDailyFocusRepository userDailyFocusRepository;
+    
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private AsyncTaskExecutor dashboardReadExecutor;
+    
+    // Absent under the eventlog profile, which never archives sessions
+    @Autowired(required = false)
+    private SessionArchiveRunRepository sessionArchiveRunRepository;
+    
+    public static final String DASHBOARD_CACHE = "dashboardSnapshots";
+    
+    private static final DateTimeFormatter MONTH_KEY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+    
+    private static final LocalDate EARLIEST_DAY = LocalDate.of(1970, 1, 1);
+    private static final LocalDate LATEST_DAY = LocalDate.of(9999, 1, 1);
+    
+    // Full recompute from the user's entire history. This is a repair operation only;
+    // the normal session-end path goes through applySessionsCompleted instead.
+    // Archived days only have their rollup rows left, so those are read in their place.
+    // Reads the locked row rather than the request copy, which may predate a worker's update.
     public void updateUserStatistics(Long userId) {
-        User user = userService.findById(userId);
-        
-        // Calculate total focus hours - only count completed sessions
-        List<FocusSession> allSessions = focusSessionRepository.findByUserOrderByStartTimeDesc(user);
-        double totalMinutes = 0.0;
-        LocalDateTime lastSessionTime = null;
-        
-        for (FocusSession session : allSessions) {
-            if (session.getSessionType().equals("pomodoro") && 
-                session.getDurationMinutes() != null && 
-                session.getDurationMinutes() > 0) {
-                totalMinutes += session.getDurationMinutes();
-                // Track most recent completed session
-                if (lastSessionTime == null || session.getStartTime().isAfter(lastSessionTime)) {
-                    lastSessionTime = session.getStartTime();
-                }
+        User user = userService.findByIdForUpdate(userId);
+        LocalDate archivedBefore = getArchivedBefore();
+        
+        // Calculate total focus hours - the database sums completed pomodoros
+        long totalMinutes = 0;
+        if (archivedBefore == null) {
+            Long rawMinutes = focusSessionRepository.getTotalFocusMinutes(user);
+            totalMinutes = rawMinutes != null ? rawMinutes : 0L;
+        } else {
+            for (UserDailyFocus day : archivedDays(user, archivedBefore)) {
+                totalMinutes += day.getPomodoroMinutes();
+            }
+            for (DailyFocusTotal day : focusSessionRepository.sumFocusByDayBetween(
+                    user, archivedBefore.atStartOfDay(), LATEST_DAY.atStartOfDay())) {
+                totalMinutes += day.getMinutes();
             }
         }
         
+        // Archived sessions leave no start times behind, so the stored time is kept for them
+        LocalDateTime lastSessionTime = focusSessionRepository.getLastFocusSessionTime(user);
+        if (lastSessionTime == null && archivedBefore != null) {
+            lastSessionTime = user.getLastSessionTime();
+        }
+        
         user.setTotalFocusHours(totalMinutes / 60.0);
         user.setLastSessionTime(lastSessionTime);
         
-        // Calculate and update streak
-        int streak = calculateStreak(user);
-        user.setCurrentStreak(streak);
-        
-        // Update max streak if current streak is higher
-        Integer currentMaxStreak = user.getMaxStreak();
-        if (currentMaxStreak == null || streak > currentMaxStreak) {
-            user.setMaxStreak(streak);
-        }
+        // Rebuild the activity bitmap, then both streaks follow from it exactly
+        ActivityBitmap activity = buildActivity(user);
+        storeActivity(user, activity);
         
         userService.save(user);
     }
     
-    public int calculateStreak(User user) {
-        List<FocusSession> sessions = focusSessionRepository.findByUserOrderByStartTimeDesc(user);
-        
-        if (sessions.isEmpty()) {
-            return 0;
+    // Applies a batch of finished sessions for one user in a single transaction, each in O(1).
+    // The user row is locked so workers handling the same user apply their batches in turn.
+    // Returns the days whose rollup changed.
+    // Always a new transaction: when the worker's queue is full this runs on the publishing
+    // thread, inside the AFTER_COMMIT callback of a transaction that has already committed.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Set<LocalDate> applySessionsCompleted(Long userId, List<SessionCompletedEvent> events) {
+        User user = userService.findByIdForUpdate(userId);
+        
+        ActivityBitmap activity = loadActivity(user);
+        if (activity.isEmpty() && user.getLastSessionTime() != null) {
+            // Users from before the bitmap existed get it filled in once from their history
+            activity = buildActivity(user);
         }
         
-        // Filter only pomodoro sessions with completed duration
-        List<FocusSession> pomodoroSessions = sessions.stream()
-                .filter(s -> s.getSessionType().equals("pomodoro") && 
-                           s.getDurationMinutes() != null && 
-                           s.getDurationMinutes() > 0)
-                .collect(Collectors.toList());
+        // Each event carries its own delta, so the sessions are only needed for type and date
+        Map<Long, FocusSession> sessions = new HashMap<>();
+        for (FocusSession session : focusSessionRepository.findAllById(
+                events.stream().map(SessionCompletedEvent::getSessionId).distinct().toList())) {
+            sessions.put(session.getId(), session);
+        }
         
-        if (pomodoroSessions.isEmpty()) {
-            return 0;
+        // Rollup changes are summed per day first, so a large batch touches each day once
+        Map<LocalDate, int[]> dailyDeltas = new HashMap<>();
+        for (SessionCompletedEvent event : events) {
+            FocusSession session = sessions.get(event.getSessionId());
+            // The session may have been archived or deleted before the worker got to it
+            if (session == null) {
+                continue;
+            }
+            if (!"pomodoro".equals(session.getSessionType()) || event.getDurationMinutes() == null) {
+                continue;
+            }
+            Integer previous = event.getPreviousMinutes();
+            boolean alreadyCounted = previous != null && previous > 0;
+            if (!alreadyCounted && event.getDurationMinutes() <= 0) {
+                continue;
+            }
+            
+            // Total hours and the daily rollup only need the change in duration
+            int deltaMinutes = event.getDurationMinutes() - (alreadyCounted ? previous : 0);
+            LocalDateTime startTime = session.getStartTime();
+            int[] day = dailyDeltas.computeIfAbsent(startTime.toLocalDate(), date -> new int[2]);
+            day[0] += deltaMinutes;
+            day[1] += alreadyCounted ? 0 : 1;
+            
+            Double totalHours = user.getTotalFocusHours();
+            user.setTotalFocusHours((totalHours != null ? totalHours : 0.0) + deltaMinutes / 60.0);
+            
+            activity.set(startTime.toLocalDate());
+            if (user.getLastSessionTime() == null || startTime.isAfter(user.getLastSessionTime())) {
+                user.setLastSessionTime(startTime);
+            }
         }
         
-        LocalDate today = LocalDate.now();
+        addToDailyFocus(user, dailyDeltas);
         
-        // Get unique dates with at least one session, sorted newest first
-        Set<LocalDate> sessionDatesSet = new HashSet<>();
-        for (FocusSession session : pomodoroSessions) {
-            sessionDatesSet.add(session.getStartTime().toLocalDate());
+        storeActivity(user, activity);
+        userService.save(user);
+        return dailyDeltas.keySet();
+    }
+    
+    private ActivityBitmap loadActivity(User user) {
+        return ActivityBitmap.fromBytes(user.getActivityOriginDay(), user.getActivityBitmap());
+    }
+    
+    private ActivityBitmap buildActivity(User user) {
+        ActivityBitmap activity = new ActivityBitmap();
+        LocalDate archivedBefore = getArchivedBefore();
+        if (archivedBefore != null) {
+            for (UserDailyFocus day : archivedDays(user, archivedBefore)) {
+                activity.set(day.getFocusDate());
+            }
         }
-        
-        if (sessionDatesSet.isEmpty()) {
+        for (LocalDate day : focusSessionRepository.findFocusDays(user)) {
+            activity.set(day);
+        }
+        return activity;
+    }
+    
+    // First day whose sessions are still in focus_sessions, or null if none were archived
+    private LocalDate getArchivedBefore() {
+        return sessionArchiveRunRepository != null ? sessionArchiveRunRepository.findArchivedBefore() : null;
+    }
+    
+    private List<UserDailyFocus> archivedDays(User user, LocalDate archivedBefore) {
+        return userDailyFocusRepository.findByUserAndFocusDateBetween(user, EARLIEST_DAY, archivedBefore.minusDays(1));
+    }
+    
+    // Persists the bitmap and derives the stored streaks from it. The stored current
+    // streak is the run ending at the last active day; getEffectiveStreak ages it.
+    // Every caller changes stored statistics, so this also bumps the statistics version.
+    private void storeActivity(User user, ActivityBitmap activity) {
+        user.setStatisticsVersion(user.getStatisticsVersion() + 1);
+        if (activity.isEmpty()) {
+            user.setActivityOriginDay(null);
+            user.setActivityBitmap(null);
+            user.setCurrentStreak(0);
+            user.setMaxStreak(0);
+            return;
+        }
+        user.setActivityOriginDay(activity.getOriginDay());
+        user.setActivityBitmap(activity.toBytes());
+        user.setCurrentStreak(activity.runEndingAt(activity.lastActiveDay()));
+        user.setMaxStreak(activity.longestRun());
+    }
+    
+    // The stored streak is only refreshed when a session ends, so it has to be
+    // treated as broken once the last session is more than a day old.
+    public int getEffectiveStreak(User user, LocalDate today) {
+        LocalDateTime lastSessionTime = user.getLastSessionTime();
+        Integer streak = user.getCurrentStreak();
+        if (lastSessionTime == null || streak == null) {
             return 0;
         }
-        
-        // Find the most recent session date
-        LocalDate mostRecentDate = null;
-        for (LocalDate date : sessionDatesSet) {
-            if (mostRecentDate == null || date.isAfter(mostRecentDate)) {
-                mostRecentDate = date;
-            }
+        if (ChronoUnit.DAYS.between(lastSessionTime.toLocalDate(), today) > 1) {
+            return 0;
         }
+        return streak;
+    }
+    
+    public int calculateStreak(User user) {
+        ActivityBitmap activity = loadActivity(user);
+        LocalDate mostRecentDate = activity.lastActiveDay();
         
         if (mostRecentDate == null) {
             return 0;
@@ -107,24 +232,16 @@ public class StatisticsService {
         
         // Check if most recent session is today or yesterday
         // If it's more than 1 day ago, streak is broken
-        long daysSinceLastSession = ChronoUnit.DAYS.between(mostRecentDate, today);
+        long daysSinceLastSession = ChronoUnit.DAYS.between(mostRecentDate, LocalDate.now());
         if (daysSinceLastSession > 1) {
             return 0;
         }
         
         // Count consecutive days backwards from most recent date
-        int streak = 0;
-        LocalDate checkDate = mostRecentDate;
-        
-        // Count consecutive days going backwards
-        while (sessionDatesSet.contains(checkDate)) {
-            streak++;
-            checkDate = checkDate.minusDays(1);
-        }
-        
-        return streak;
+        return activity.runEndingAt(mostRecentDate);
     }
     
+    @Transactional(readOnly = true)
     public Map<String, Object> getDashboardStatistics(Long userId) {
         User user = userService.findById(userId);
         
@@ -134,8 +251,7 @@ public class StatisticsService {
         Double totalHours = user.getTotalFocusHours();
         stats.put("totalHours", totalHours != null ? totalHours : 0.0);
         
-        Integer streak = user.getCurrentStreak();
-        stats.put("currentStreak", streak != null ? streak : 0);
+        stats.put("currentStreak", getEffectiveStreak(user, LocalDate.now()));
         
         Integer maxStreak = user.getMaxStreak();
         stats.put("maxStreak", maxStreak != null ? maxStreak : 0);
@@ -145,129 +261,267 @@ public class StatisticsService {
         return stats;
     }
     
-    public Map<String, Integer> getWeeklyStatistics(Long userId) {
-        User user = userService.findById(userId);
+    // Builds every dashboard figure from one user lookup and one rollup query.
+    // The weekly, monthly and contribution windows are all slices of the same day array.
+    // Cached per user and day, so a snapshot never outlives the day it was computed for.
+    // The two reads are independent and run concurrently, each in its own short transaction,
+    // so this method must not hold a connection of its own while it waits for them.
+    @Cacheable(cacheNames = DASHBOARD_CACHE, key = "T(com.example.SoloFocus.io.service.StatisticsService).dashboardCacheKey(#userId)")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DashboardSnapshot getDashboardSnapshot(Long userId) {
         LocalDate today = LocalDate.now();
-        LocalDateTime sevenDaysAgo = LocalDateTime.of(today.minusDays(6), java.time.LocalTime.MIN);
-        
-        // Get sessions from the last 7 days (including today)
-        List<FocusSession> recentSessions = focusSessionRepository.findByUserAndStartTimeAfter(user, sevenDaysAgo);
-        
-        // Initialize all 7 days with 0 minutes
-        Map<String, Integer> weeklyData = new HashMap<>();
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            weeklyData.put(date.toString(), 0);
+        LocalDate firstDay = today.minusDays(DashboardSnapshot.WINDOW_DAYS - 1);
+        LocalDate firstMonth = today.minusMonths(DashboardSnapshot.MONTHS - 1).withDayOfMonth(1);
+        int firstMonthIndex = firstMonth.getYear() * 12 + firstMonth.getMonthValue();
+        
+        CompletableFuture<User> userRead = CompletableFuture.supplyAsync(
+                () -> userService.findById(userId), dashboardReadExecutor);
+        CompletableFuture<List<UserDailyFocus>> daysRead = CompletableFuture.supplyAsync(
+                () -> userDailyFocusRepository.findByUserIdAndFocusDateBetween(userId, firstDay, today), dashboardReadExecutor);
+        
+        User user = joinAll(userRead, daysRead);
+        
+        int[] dailyMinutes = new int[DashboardSnapshot.WINDOW_DAYS];
+        int[] monthlyMinutes = new int[DashboardSnapshot.MONTHS];
+        
+        for (UserDailyFocus day : daysRead.join()) {
+            LocalDate date = day.getFocusDate();
+            int minutes = day.getPomodoroMinutes();
+            dailyMinutes[(int) ChronoUnit.DAYS.between(firstDay, date)] += minutes;
+            
+            int month = date.getYear() * 12 + date.getMonthValue() - firstMonthIndex;
+            if (month >= 0) {
+                monthlyMinutes[month] += minutes;
+            }
         }
         
-        // Aggregate minutes by date
-        for (FocusSession session : recentSessions) {
-            if (session.getSessionType() != null && 
-                session.getSessionType().equals("pomodoro") && 
-                session.getDurationMinutes() != null && 
-                session.getDurationMinutes() > 0) {
-                LocalDate sessionDate = session.getStartTime().toLocalDate();
-                String dateKey = sessionDate.toString();
-                if (weeklyData.containsKey(dateKey)) {
-                    weeklyData.put(dateKey, weeklyData.get(dateKey) + session.getDurationMinutes());
+        Double totalHours = user.getTotalFocusHours();
+        return new DashboardSnapshot(
+                totalHours != null ? totalHours : 0.0,
+                getEffectiveStreak(user, today),
+                user.getMaxStreak(),
+                user.getLastSessionTime(),
+                today,
+                dailyMinutes,
+                monthlyMinutes,
+                user.getStatisticsVersion());
+    }
+    
+    // Waits for every read and returns the first one's result. If any read fails the
+    // others are cancelled and the failure is rethrown on the calling thread.
+    private static <T> T joinAll(CompletableFuture<T> first, CompletableFuture<?>... rest) {
+        CompletableFuture<?>[] all = new CompletableFuture<?>[rest.length + 1];
+        all[0] = first;
+        System.arraycopy(rest, 0, all, 1, rest.length);
+        
+        CompletableFuture<Void> done = CompletableFuture.allOf(all);
+        for (CompletableFuture<?> future : all) {
+            future.whenComplete((result, error) -> {
+                if (error != null) {
+                    done.completeExceptionally(error);
                 }
+            });
+        }
+        
+        try {
+            done.join();
+            return first.join();
+        } catch (CompletionException e) {
+            for (CompletableFuture<?> future : all) {
+                future.cancel(true);
             }
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("Dashboard read failed", cause);
         }
+    }
+    
+    @Transactional(readOnly = true)
+    public Map<String, Integer> getWeeklyStatistics(Long userId) {
+        User user = userService.findById(userId);
+        LocalDate today = LocalDate.now();
         
-        return weeklyData;
+        // Last 7 days (including today), read from the daily rollup
+        return getDailyMinutes(user, today.minusDays(6), today);
     }
     
+    @Transactional(readOnly = true)
     public Map<String, Integer> getMonthlyStatistics(Long userId) {
         User user = userService.findById(userId);
         LocalDate today = LocalDate.now();
-        LocalDateTime thirtyDaysAgo = LocalDateTime.of(today.minusDays(29), java.time.LocalTime.MIN);
-        
-        // Get sessions from the last 30 days (including today)
-        List<FocusSession> recentSessions = focusSessionRepository.findByUserAndStartTimeAfter(user, thirtyDaysAgo);
-        
-        // Initialize all 30 days with 0 minutes
-        Map<String, Integer> monthlyData = new HashMap<>();
-        for (int i = 29; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            monthlyData.put(date.toString(), 0);
-        }
         
-        // Aggregate minutes by date
-        for (FocusSession session : recentSessions) {
-            if (session.getSessionType() != null && 
-                session.getSessionType().equals("pomodoro") && 
-                session.getDurationMinutes() != null && 
-                session.getDurationMinutes() > 0) {
-                LocalDate sessionDate = session.getStartTime().toLocalDate();
-                String dateKey = sessionDate.toString();
-                if (monthlyData.containsKey(dateKey)) {
-                    monthlyData.put(dateKey, monthlyData.get(dateKey) + session.getDurationMinutes());
-                }
-            }
-        }
-        
-        return monthlyData;
+        // Last 30 days (including today), read from the daily rollup
+        return getDailyMinutes(user, today.minusDays(29), today);
     }
     
+    @Transactional(readOnly = true)
     public Map<String, Integer> getYearlyStatistics(Long userId) {
         User user = userService.findById(userId);
-        LocalDateTime oneYearAgo = LocalDateTime.now().minusDays(365);
-        List<FocusSession> allSessions = focusSessionRepository.findByUserAndStartTimeAfter(user, oneYearAgo);
+        LocalDate today = LocalDate.now();
         
         // Initialize last 12 months with 0 minutes
         Map<String, Integer> yearlyData = new HashMap<>();
-        LocalDate today = LocalDate.now();
         for (int i = 11; i >= 0; i--) {
             LocalDate monthStart = today.minusMonths(i).withDayOfMonth(1);
-            String monthKey = monthStart.format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM"));
+            String monthKey = monthStart.format(MONTH_KEY_FORMAT);
             yearlyData.put(monthKey, 0);
         }
         
-        // Aggregate by month
-        for (FocusSession session : allSessions) {
-            if (session.getSessionType() != null && 
-                session.getSessionType().equals("pomodoro") && 
-                session.getDurationMinutes() != null && 
-                session.getDurationMinutes() > 0) {
-                LocalDate sessionDate = session.getStartTime().toLocalDate();
-                String monthKey = sessionDate.format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM"));
-                if (yearlyData.containsKey(monthKey)) {
-                    yearlyData.put(monthKey, yearlyData.get(monthKey) + session.getDurationMinutes());
-                }
+        // Monthly sums are grouped in the database from the daily rollup
+        List<MonthlyFocusTotal> months = userDailyFocusRepository.sumByMonthBetween(
+                user, today.minusDays(365), today);
+        for (MonthlyFocusTotal month : months) {
+            String monthKey = YearMonth.of(month.getYear(), month.getMonth()).format(MONTH_KEY_FORMAT);
+            if (yearlyData.containsKey(monthKey)) {
+                yearlyData.put(monthKey, month.getMinutes().intValue());
             }
         }
         
         return yearlyData;
     }
     
+    @Transactional(readOnly = true)
     public Map<String, Integer> getContributionData(Long userId) {
         User user = userService.findById(userId);
-        LocalDateTime oneYearAgo = LocalDateTime.now().minusDays(365);
-        List<FocusSession> allSessions = focusSessionRepository.findByUserAndStartTimeAfter(user, oneYearAgo);
+        LocalDate today = LocalDate.now();
         
-        // Initialize all dates in the last year with 0
-        Map<String, Integer> contributionData = new HashMap<>();
+        // One entry per day for the last year, read from the daily rollup
+        return getDailyMinutes(user, today.minusDays(364), today);
+    }
+    
+    // Focus minutes by hour of day over the last 30 days, keyed "00" to "23"
+    @Transactional(readOnly = true)
+    public Map<String, Integer> getHourlyStatistics(Long userId) {
+        User user = userService.findById(userId);
         LocalDate today = LocalDate.now();
-        LocalDate startDate = today.minusDays(364);
         
-        for (int i = 0; i < 365; i++) {
-            LocalDate date = startDate.plusDays(i);
-            contributionData.put(date.toString(), 0);
+        Map<String, Integer> hourlyData = new HashMap<>();
+        for (int hour = 0; hour < 24; hour++) {
+            hourlyData.put(String.format("%02d", hour), 0);
+        }
+        
+        List<HourlyFocusTotal> hours = focusSessionRepository.sumFocusByHourBetween(
+                user, today.minusDays(29).atStartOfDay(), today.plusDays(1).atStartOfDay());
+        for (HourlyFocusTotal hour : hours) {
+            hourlyData.put(String.format("%02d", hour.getHour()), hour.getMinutes().intValue());
+        }
+        
+        return hourlyData;
+    }
+    
+    // Rebuilds the user's daily rollup rows from the full session history (repair operation).
+    // Rows of archived days have no sessions left to rebuild them from, so they are kept.
+    public void rebuildDailyFocus(Long userId) {
+        User user = userService.findById(userId);
+        LocalDate archivedBefore = getArchivedBefore();
+        
+        List<DailyFocusTotal> totals;
+        if (archivedBefore == null) {
+            userDailyFocusRepository.deleteByUser(user);
+            totals = focusSessionRepository.sumFocusByDay(user);
+        } else {
+            userDailyFocusRepository.deleteByUserBetween(user, archivedBefore, LATEST_DAY);
+            totals = focusSessionRepository.sumFocusByDayBetween(
+                    user, archivedBefore.atStartOfDay(), LATEST_DAY.atStartOfDay());
         }
         
-        // Fill in actual session minutes
-        for (FocusSession session : allSessions) {
-            if (session.getSessionType() != null && 
-                session.getSessionType().equals("pomodoro") && 
-                session.getDurationMinutes() != null && 
-                session.getDurationMinutes() > 0) {
-                String dateKey = session.getStartTime().toLocalDate().toString();
-                if (contributionData.containsKey(dateKey)) {
-                    contributionData.put(dateKey, contributionData.get(dateKey) + session.getDurationMinutes());
+        userDailyFocusRepository.saveAll(toDailyFocus(user, totals));
+        userService.incrementStatisticsVersion(userId);
+    }
+    
+    // Replaces the user's rollup rows for the days from..before (exclusive) with exact sums of
+    // their sessions, before the archival job removes those sessions. Holds the user lock, so a
+    // session ending for one of these days meanwhile is added after the rows are replaced.
+    public void compactDailyFocus(Long userId, LocalDate from, LocalDate before) {
+        User user = userService.findByIdForUpdate(userId);
+        userDailyFocusRepository.deleteByUserBetween(user, from, before.minusDays(1));
+        userDailyFocusRepository.saveAll(toDailyFocus(user, focusSessionRepository.sumFocusByDayBetween(
+                user, from.atStartOfDay(), before.atStartOfDay())));
+    }
+    
+    private static List<UserDailyFocus> toDailyFocus(User user, List<DailyFocusTotal> totals) {
+        List<UserDailyFocus> days = new ArrayList<>(totals.size());
+        for (DailyFocusTotal total : totals) {
+            days.add(new UserDailyFocus(user, total.getDay(),
+                    total.getMinutes().intValue(), total.getSessions().intValue()));
+        }
+        return days;
+    }
+    
+    private void addToDailyFocus(User user, Map<LocalDate, int[]> dailyDeltas) {
+        // Increment in place; days without a row yet are inserted together as one batch
+        List<UserDailyFocus> newDays = new ArrayList<>();
+        for (Map.Entry<LocalDate, int[]> day : dailyDeltas.entrySet()) {
+            int minutes = day.getValue()[0];
+            int sessions = day.getValue()[1];
+            if (userDailyFocusRepository.addToDay(user, day.getKey(), minutes, sessions) == 0) {
+                newDays.add(new UserDailyFocus(user, day.getKey(), minutes, sessions));
+            }
+        }
+        userDailyFocusRepository.saveAll(newDays);
+    }
+    
+    // What changed on the dashboard after an update touching the given days. Not read-only:
+    // it runs right after the update commits and must see it, so it reads the primary.
+    public DashboardDeltaDTO getDashboardDelta(Long userId, Set<LocalDate> days) {
+        User user = userService.findById(userId);
+        LocalDate today = LocalDate.now();
+        
+        Map<String, Integer> dayMinutes = new TreeMap<>();
+        if (!days.isEmpty()) {
+            for (LocalDate day : days) {
+                dayMinutes.put(day.toString(), 0);
+            }
+            for (UserDailyFocus day : userDailyFocusRepository.findByUserAndFocusDateBetween(
+                    user, Collections.min(days), Collections.max(days))) {
+                if (days.contains(day.getFocusDate())) {
+                    dayMinutes.put(day.getFocusDate().toString(), day.getPomodoroMinutes());
                 }
             }
         }
         
-        return contributionData;
+        Double totalHours = user.getTotalFocusHours();
+        return new DashboardDeltaDTO(
+                dashboardETag(userId, user.getStatisticsVersion(), today),
+                totalHours != null ? totalHours : 0.0,
+                getEffectiveStreak(user, today),
+                user.getMaxStreak(),
+                user.getLastSessionTime(),
+                dayMinutes);
+    }
+    
+    // Cheap stand-in for the snapshot when revalidating: one primary-key read, no aggregation.
+    // Includes the date because the windows and the effective streak move at midnight.
+    @Transactional(readOnly = true)
+    public String getDashboardETag(Long userId) {
+        return dashboardETag(userId, userService.getStatisticsVersion(userId), LocalDate.now());
+    }
+    
+    public static String dashboardETag(Long userId, DashboardSnapshot snapshot) {
+        return dashboardETag(userId, snapshot.getStatisticsVersion(), snapshot.getToday());
+    }
+    
+    private static String dashboardETag(Long userId, long version, LocalDate today) {
+        return "\"" + userId + "-" + version + "-" + today + "\"";
+    }
+    
+    public static String dashboardCacheKey(Long userId) {
+        return userId + ":" + LocalDate.now();
+    }
+    
+    private Map<String, Integer> getDailyMinutes(User user, LocalDate start, LocalDate end) {
+        // Initialize every day in the range with 0 minutes
+        Map<String, Integer> dailyData = new HashMap<>();
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            dailyData.put(date.toString(), 0);
+        }
+        
+        for (UserDailyFocus day : userDailyFocusRepository.findByUserAndFocusDateBetween(user, start, end)) {
+            dailyData.put(day.getFocusDate().toString(), day.getPomodoroMinutes());
+        }
+        
+        return dailyData;
     }
-}
\ No newline at end of file
+}
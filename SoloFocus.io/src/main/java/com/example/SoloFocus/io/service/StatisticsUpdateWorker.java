@@ -0,0 +1,136 @@
+package com.example.SoloFocus.io.service;
+
+import com.example.SoloFocus.io.datasource.ReadYourWritesGuard;
+import com.example.SoloFocus.io.event.SessionCompletedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Applies finished sessions to user statistics off the request thread. Sessions that end
+// for the same user while an update is still queued are merged into that update.
+@Component
+public class StatisticsUpdateWorker {
+    
+    private static final Logger log = LoggerFactory.getLogger(StatisticsUpdateWorker.class);
+    
+    private final ConcurrentHashMap<Long, List<SessionCompletedEvent>> pending = new ConcurrentHashMap<>();
+    
+    private final ThreadPoolTaskExecutor executor;
+    private final StatisticsService statisticsService;
+    private final DashboardCacheInvalidator dashboardCacheInvalidator;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final DashboardUpdatePublisher dashboardUpdatePublisher;
+    private final LeaderboardService leaderboardService;
+    
+    private final Counter received;
+    private final Counter coalesced;
+    private final Counter applied;
+    private final Counter callerRuns;
+    private final Counter failures;
+    
+    @Autowired
+    public StatisticsUpdateWorker(ThreadPoolTaskExecutor statisticsExecutor,
+                                  StatisticsService statisticsService,
+                                  DashboardCacheInvalidator dashboardCacheInvalidator,
+                                  ReadYourWritesGuard readYourWritesGuard,
+                                  DashboardUpdatePublisher dashboardUpdatePublisher,
+                                  LeaderboardService leaderboardService,
+                                  MeterRegistry meterRegistry) {
+        this.executor = statisticsExecutor;
+        this.statisticsService = statisticsService;
+        this.dashboardCacheInvalidator = dashboardCacheInvalidator;
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.dashboardUpdatePublisher = dashboardUpdatePublisher;
+        this.leaderboardService = leaderboardService;
+        
+        this.received = meterRegistry.counter("statistics.updates.received");
+        this.coalesced = meterRegistry.counter("statistics.updates.coalesced");
+        this.applied = meterRegistry.counter("statistics.updates.applied");
+        this.callerRuns = meterRegistry.counter("statistics.updates.caller.runs");
+        this.failures = meterRegistry.counter("statistics.updates.failures");
+        Gauge.builder("statistics.updates.queue.size", executor,
+                e -> e.getThreadPoolExecutor().getQueue().size()).register(meterRegistry);
+        Gauge.builder("statistics.updates.pending.users", pending, ConcurrentHashMap::size).register(meterRegistry);
+        
+        // Backpressure: when the queue is full (or draining) the publishing thread does the work itself
+        this.executor.getThreadPoolExecutor().setRejectedExecutionHandler((task, pool) -> {
+            callerRuns.increment();
+            task.run();
+        });
+    }
+    
+    @TransactionalEventListener
+    public void onSessionCompleted(SessionCompletedEvent event) {
+        received.increment();
+        
+        boolean[] scheduled = new boolean[1];
+        pending.compute(event.getUserId(), (userId, events) -> {
+            if (events == null) {
+                events = new ArrayList<>();
+                scheduled[0] = true;
+            }
+            events.add(event);
+            return events;
+        });
+        
+        if (scheduled[0]) {
+            executor.execute(() -> process(event.getUserId()));
+        } else {
+            coalesced.increment();
+        }
+    }
+    
+    private void process(Long userId) {
+        // Take everything queued for this user so far; later events schedule a new run
+        List<SessionCompletedEvent> events = pending.remove(userId);
+        if (events == null) {
+            return;
+        }
+        
+        Set<LocalDate> changedDays;
+        try {
+            changedDays = statisticsService.applySessionsCompleted(userId, events);
+            applied.increment();
+            // The next dashboard read must come from the primary, or a lagging replica
+            // could put a snapshot without these sessions back in the cache
+            readYourWritesGuard.recordWrite(userId);
+            dashboardCacheInvalidator.evict(userId);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.error("Failed to update statistics for user {}; use the dashboard recalculate action to repair", userId, e);
+            return;
+        }
+        
+        try {
+            leaderboardService.refresh(userId, changedDays);
+        } catch (RuntimeException e) {
+            log.warn("Failed to update leaderboard for user {}", userId, e);
+        }
+        
+        try {
+            dashboardUpdatePublisher.publish(userId, changedDays);
+        } catch (RuntimeException e) {
+            log.warn("Failed to push dashboard update for user {}", userId, e);
+        }
+    }
+    
+    // Runs before the services and datasource this worker depends on are destroyed
+    @PreDestroy
+    public void drain() {
+        log.info("Draining {} pending statistics updates", pending.size());
+        executor.shutdown();
+    }
+}
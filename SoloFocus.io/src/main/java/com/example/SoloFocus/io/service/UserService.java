@@ -15,6 +15,9 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private RequestUserCache requestUserCache;
+    
     public User registerUser(String username, String email, String password) {
         if (userRepository.existsByUsername(username)) {
             throw new RuntimeException("Username already exists");
@@ -27,6 +30,7 @@ public class UserService {
         return userRepository.save(user);
     }
     
+    // Stays on the primary so a user who just registered can log in before the replicas catch up
     public User loginUser(String username, String password) {
         Optional<User> userOpt = userRepository.findByUsername(username);
         if (userOpt.isEmpty()) {
@@ -42,18 +46,53 @@ public class UserService {
         return user;
     }
     
+    // Read-only, so it may be served by a replica when the replicas profile is active.
+    // Answered from the request's own cache first, then the second-level cache.
+    @Transactional(readOnly = true)
     public User findById(Long id) {
-        return userRepository.findById(id)
+        return requestUserCache.get(id, () -> userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found")));
+    }
+    
+    // Loads the user with a row lock held until the surrounding transaction ends.
+    // Always reads the database; the locked row replaces any copy cached for the request.
+    public User findByIdForUpdate(Long id) {
+        User user = userRepository.findWithLockById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        requestUserCache.put(user);
+        return user;
+    }
+    
+    // Proxy for use as an association; the row is not loaded
+    public User getReference(Long id) {
+        return userRepository.getReferenceById(id);
     }
     
+    @Transactional(readOnly = true)
+    public long getStatisticsVersion(Long id) {
+        return userRepository.findStatisticsVersionById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+    
+    // A bulk update, so Hibernate drops the cached users itself; the request copy goes too
+    public void incrementStatisticsVersion(Long id) {
+        userRepository.incrementStatisticsVersion(id);
+        requestUserCache.evict(id);
+    }
+    
+    @Transactional(readOnly = true)
     public User findByUsername(String username) {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
     
+    // The second-level cache entry is updated when the transaction commits. User has no
+    // version column, so pass a user from findByIdForUpdate: saving a copy from findById
+    // would write back whatever changed since it was read.
     public User save(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        requestUserCache.put(saved);
+        return saved;
     }
 }
 
@@ -0,0 +1,29 @@
+-- Baseline: the schema previously generated by Hibernate's ddl-auto=update.
+-- Existing databases are baselined at this version and skip this script.
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    created_at DATETIME(6),
+    last_session_time DATETIME(6),
+    current_streak INT,
+    max_streak INT,
+    total_focus_hours DOUBLE,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE=InnoDB;
+
+CREATE TABLE focus_sessions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    start_time DATETIME(6) NOT NULL,
+    end_time DATETIME(6),
+    duration_minutes INT,
+    session_type VARCHAR(255),
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_focus_sessions_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB;
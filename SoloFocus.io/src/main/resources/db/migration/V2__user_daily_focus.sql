@@ -0,0 +1,21 @@
+-- Per-user daily rollup of completed pomodoros backing the dashboard charts.
+-- The table may already exist where ddl-auto created it, so it is rebuilt from focus_sessions.
+
+CREATE TABLE IF NOT EXISTS user_daily_focus (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    focus_date DATE NOT NULL,
+    pomodoro_minutes INT NOT NULL,
+    session_count INT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_daily_focus_user_date UNIQUE (user_id, focus_date),
+    CONSTRAINT fk_user_daily_focus_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+DELETE FROM user_daily_focus;
+
+INSERT INTO user_daily_focus (user_id, focus_date, pomodoro_minutes, session_count)
+SELECT user_id, CAST(start_time AS DATE), SUM(duration_minutes), COUNT(*)
+FROM focus_sessions
+WHERE session_type = 'pomodoro' AND duration_minutes > 0
+GROUP BY user_id, CAST(start_time AS DATE);
@@ -0,0 +1,6 @@
+-- Every statistics query filters on user, session type and a start_time range and
+-- reads duration_minutes, so this index answers them without touching the table rows.
+-- It also satisfies the user_id foreign key, which otherwise gets its own index.
+
+CREATE INDEX idx_focus_sessions_user_type_start
+    ON focus_sessions (user_id, session_type, start_time, duration_minutes);
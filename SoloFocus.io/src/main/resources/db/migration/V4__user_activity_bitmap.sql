@@ -0,0 +1,6 @@
+-- Per-user day-activity bitmap used for streak calculation.
+-- Existing users are filled in lazily from focus_sessions on their next completed session.
+
+ALTER TABLE users ADD COLUMN activity_origin_day BIGINT;
+
+ALTER TABLE users ADD COLUMN activity_bitmap BLOB;
@@ -0,0 +1,4 @@
+-- Counter bumped whenever a user's stored statistics change.
+-- The dashboard data endpoint derives its ETag from it, so revalidation is a primary-key read.
+
+ALTER TABLE users ADD COLUMN statistics_version BIGINT NOT NULL DEFAULT 0;
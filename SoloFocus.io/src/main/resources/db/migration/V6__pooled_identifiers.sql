@@ -0,0 +1,18 @@
+-- Pooled id allocation for users, focus_sessions and user_daily_focus, replacing AUTO_INCREMENT ids.
+-- Hibernate reserves 50 ids per round trip. A row holds the highest id of the next block to hand
+-- out, so it is seeded at MAX(id) + 50 (the allocationSize on the entities).
+
+CREATE TABLE id_generators (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+) ENGINE=InnoDB;
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'users', COALESCE(MAX(id), 0) + 50 FROM users;
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'focus_sessions', COALESCE(MAX(id), 0) + 50 FROM focus_sessions;
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'user_daily_focus', COALESCE(MAX(id), 0) + 50 FROM user_daily_focus;
@@ -0,0 +1,5 @@
+-- Session history is read per user in start order. This index returns the rows already in
+-- that order (id breaks ties), so an export cursor streams them without a sort first.
+
+CREATE INDEX idx_focus_sessions_user_start
+    ON focus_sessions (user_id, start_time, id);
@@ -0,0 +1,12 @@
+-- One row per archival run. Sessions that started before the latest archived_before have been
+-- compacted into user_daily_focus and removed from focus_sessions.
+
+CREATE TABLE session_archive_runs (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    archived_before DATE NOT NULL,
+    users_compacted INT NOT NULL,
+    sessions_removed BIGINT NOT NULL,
+    partitions_dropped INT NOT NULL,
+    completed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
@@ -0,0 +1,15 @@
+-- MySQL only; applied with the partitioned profile. Range-partitions focus_sessions on start_time
+-- so the archival job can drop whole months instead of deleting their rows one by one.
+-- A partitioned InnoDB table cannot have foreign keys, and every unique key must contain the
+-- partitioning column, so the user foreign key goes and start_time joins the primary key.
+-- The table is rebuilt; on a large table run this in a maintenance window.
+-- Everything starts in p_future. SessionArchiver splits it into one partition per month on
+-- its first run and keeps a few empty months ahead of the current one after that.
+
+ALTER TABLE focus_sessions DROP FOREIGN KEY fk_focus_sessions_user;
+
+ALTER TABLE focus_sessions DROP PRIMARY KEY, ADD PRIMARY KEY (id, start_time);
+
+ALTER TABLE focus_sessions PARTITION BY RANGE COLUMNS (start_time) (
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
@@ -1,16 +1,10 @@
-// Create clean copies from globally defined backend data
-// These ...FromBackend variables are expected to be set by an inline script in the HTML
-const contributionData = Object.assign({}, contributionDataFromBackend || {});
-const weeklyData = Object.assign({}, weeklyDataFromBackend || {});
-const monthlyData = Object.assign({}, monthlyDataFromBackend || {});
-const yearlyData = Object.assign({}, yearlyDataFromBackend || {});
-
-console.log('Data loaded:', {
-    contribution: Object.keys(contributionData).length,
-    weekly: Object.keys(weeklyData).length,
-    monthly: Object.keys(monthlyData).length,
-    yearly: Object.keys(yearlyData).length
-});
+// Chart series come from /dashboard/data as a start date plus dense minute arrays
+// and are expanded here into the date-keyed maps the charts read
+let contributionData = {};
+let weeklyData = {};
+let monthlyData = {};
+let yearlyData = {};
+let dataETag = null;
 
 let currentPeriod = 'week';
 let currentChart = null;
@@ -23,6 +17,62 @@ function formatDateKey(date) {
     return `${y}-${m}-${d}`;
 }
 
+function parseDateKey(key) {
+    const [y, m, d] = key.split('-').map(Number);
+    return new Date(y, (m || 1) - 1, d || 1);
+}
+
+function applyDashboardData(data) {
+    const firstDay = parseDateKey(data.firstDay);
+    const days = data.dailyMinutes.length;
+    const lastDays = (count) => {
+        const series = {};
+        for (let i = Math.max(0, days - count); i < days; i++) {
+            const date = new Date(firstDay);
+            date.setDate(firstDay.getDate() + i);
+            series[formatDateKey(date)] = data.dailyMinutes[i];
+        }
+        return series;
+    };
+    weeklyData = lastDays(7);
+    monthlyData = lastDays(30);
+    contributionData = lastDays(365);
+    
+    const firstMonth = parseDateKey(data.firstMonth);
+    yearlyData = {};
+    data.monthlyMinutes.forEach((minutes, i) => {
+        const month = new Date(firstMonth.getFullYear(), firstMonth.getMonth() + i, 1);
+        yearlyData[formatDateKey(month).slice(0, 7)] = minutes;
+    });
+    
+    const setText = (id, value) => {
+        const el = document.getElementById(id);
+        if (el) el.textContent = value;
+    };
+    setText('totalHoursValue', data.totalHours.toFixed(2));
+    setText('currentStreakValue', data.currentStreak);
+    setText('maxStreakValue', data.maxStreak);
+}
+
+// Revalidates with If-None-Match; an unchanged dashboard costs the server a 304
+// and is served from the browser cache, so nothing is re-rendered
+async function refreshDashboard() {
+    try {
+        const response = await fetch('/dashboard/data', { cache: 'no-cache', credentials: 'same-origin' });
+        if (!response.ok) return;
+        
+        const etag = response.headers.get('ETag');
+        if (etag && etag === dataETag) return;
+        dataETag = etag;
+        
+        applyDashboardData(await response.json());
+        generateContributionGraph();
+        updateChart(currentPeriod);
+    } catch (e) {
+        console.error('Failed to load dashboard data:', e);
+    }
+}
+
 function generateContributionGraph() {
     const container = document.getElementById('contributionGraph');
     if (!container) return;
@@ -326,14 +376,51 @@ function updateChart(period) {
     });
 }
 
+// Applies a "stats" event from /dashboard/stream: new headline figures plus the new total
+// of each changed day. The month totals move by the difference on each day.
+function applyDashboardDelta(delta) {
+    Object.entries(delta.days).forEach(([day, minutes]) => {
+        const previous = contributionData[day] || 0;
+        if (day in contributionData) contributionData[day] = minutes;
+        if (day in weeklyData) weeklyData[day] = minutes;
+        if (day in monthlyData) monthlyData[day] = minutes;
+        const month = day.slice(0, 7);
+        if (month in yearlyData) yearlyData[month] += minutes - previous;
+    });
+    
+    const setText = (id, value) => {
+        const el = document.getElementById(id);
+        if (el) el.textContent = value;
+    };
+    setText('totalHoursValue', delta.totalHours.toFixed(2));
+    setText('currentStreakValue', delta.currentStreak);
+    setText('maxStreakValue', delta.maxStreak);
+    
+    // The page now matches what /dashboard/data would return
+    dataETag = delta.etag;
+    generateContributionGraph();
+    updateChart(currentPeriod);
+}
+
+// EventSource reconnects on its own; a refresh after each (re)connect covers missed events
+function connectStream() {
+    if (typeof EventSource === 'undefined') return;
+    const source = new EventSource('/dashboard/stream');
+    source.addEventListener('stats', (e) => applyDashboardDelta(JSON.parse(e.data)));
+    source.addEventListener('open', () => refreshDashboard());
+}
+
 function init() {
     if (typeof Chart === 'undefined') {
         console.error('Chart.js not loaded');
         return;
     }
     
-    generateContributionGraph();
-    updateChart('week');
+    refreshDashboard();
+    connectStream();
+    document.addEventListener('visibilitychange', () => {
+        if (document.visibilityState === 'visible') refreshDashboard();
+    });
     
     const btn = document.getElementById('timeFilterBtn');
     const dropdown = document.getElementById('timeFilterDropdown');
@@ -354,6 +441,7 @@ function init() {
         document.querySelectorAll('.time-filter-item').forEach(item => {
             item.addEventListener('click', function() {
                 const period = this.dataset.period;
+                currentPeriod = period;
                 document.querySelectorAll('.time-filter-item').forEach(i => i.classList.remove('active'));
                 this.classList.add('active');
                 if (text) text.textContent = this.textContent;
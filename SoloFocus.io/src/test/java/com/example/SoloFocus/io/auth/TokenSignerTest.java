@@ -0,0 +1,125 @@
+package com.example.SoloFocus.io.auth;
+
+import com.example.SoloFocus.io.model.ActiveSession;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenSignerTest {
+    
+    private static final String OLD_KEY = key("old", 'a');
+    private static final String NEW_KEY = key("new", 'b');
+    
+    @Test
+    void verifiesTokenItIssued() {
+        TokenSigner signer = new TokenSigner(List.of(NEW_KEY), 12);
+        
+        TokenSigner.SignedToken token = signer.verify(signer.issue(7L, "ada"));
+        
+        assertNotNull(token);
+        assertEquals(7L, token.getUserId());
+        assertEquals("ada", token.getUsername());
+        assertFalse(signer.needsRenewal(token));
+    }
+    
+    @Test
+    void rejectsTamperedPayload() {
+        TokenSigner signer = new TokenSigner(List.of(NEW_KEY), 12);
+        String[] parts = signer.issue(7L, "ada").split("\\.");
+        
+        assertNull(signer.verify(String.join(".", parts[0], "8", parts[2], parts[3], parts[4])));
+        assertNull(signer.verify(String.join(".", parts[0], parts[1], String.valueOf(Long.parseLong(parts[2]) + 3600), parts[3], parts[4])));
+        assertNull(signer.verify(String.join(".", parts[0], parts[1], parts[2], encode("root"), parts[4])));
+        assertNull(signer.verify(String.join(".", parts[0], parts[1], parts[2], parts[3], encode("forged"))));
+        assertNull(signer.verify(String.join(".", parts[0], parts[1], parts[2], parts[3])));
+        assertNull(signer.verify("new.7.x.y.!"));
+    }
+    
+    @Test
+    void rejectsTokenFromAnotherKeyWithTheSameId() {
+        TokenSigner signer = new TokenSigner(List.of(NEW_KEY), 12);
+        TokenSigner impostor = new TokenSigner(List.of(key("new", 'z')), 12);
+        
+        assertNull(signer.verify(impostor.issue(7L, "ada")));
+    }
+    
+    // After a rotation the old key still verifies and the token is renewed; once it is removed, it does not
+    @Test
+    void retiredKeyIsAcceptedUntilRemoved() {
+        String token = new TokenSigner(List.of(OLD_KEY), 12).issue(7L, "ada");
+        
+        TokenSigner rotated = new TokenSigner(List.of(NEW_KEY, OLD_KEY), 12);
+        TokenSigner.SignedToken verified = rotated.verify(token);
+        assertNotNull(verified);
+        assertTrue(rotated.needsRenewal(verified));
+        
+        assertNull(new TokenSigner(List.of(NEW_KEY), 12).verify(token));
+    }
+    
+    @Test
+    void rejectsExpiredToken() {
+        TokenSigner signer = new TokenSigner(List.of(NEW_KEY), 0);
+        
+        assertNull(signer.verify(signer.issue(7L, "ada")));
+    }
+    
+    @Test
+    void sessionTokenRoundTripsForItsUserOnly() {
+        TokenSigner signer = new TokenSigner(List.of(NEW_KEY), 12);
+        LocalDateTime start = LocalDateTime.of(2026, 10, 17, 8, 45, 12, 345_000_000);
+        String token = signer.issueSession(new ActiveSession(0, 7L, "pomodoro", start));
+        
+        ActiveSession session = signer.verifySession(token, 7L);
+        assertNotNull(session);
+        assertEquals(7L, session.getUserId());
+        assertEquals("pomodoro", session.getSessionType());
+        assertEquals(start, session.getStartTime());
+        
+        assertNull(signer.verifySession(token, 8L));
+        // A login token is not a session token, and the other way round
+        assertNull(signer.verifySession(signer.issue(7L, "ada"), 7L));
+        assertNull(signer.verify(token));
+    }
+    
+    @Test
+    void rejectsTamperedSessionToken() {
+        TokenSigner signer = new TokenSigner(List.of(NEW_KEY), 12);
+        String token = signer.issueSession(new ActiveSession(0, 7L, "short_break", LocalDateTime.of(2026, 10, 17, 8, 0)));
+        String[] parts = token.split("\\.");
+        
+        assertNull(signer.verifySession(String.join(".", parts[0], parts[1], parts[2], parts[3], encode("pomodoro"), parts[5]), 7L));
+        assertNull(signer.verifySession(String.join(".", parts[0], parts[1], parts[2], "0", parts[4], parts[5]), 7L));
+    }
+    
+    @Test
+    void rejectsMissingOrShortKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenSigner(List.of(), 12));
+        assertThrows(IllegalArgumentException.class, () -> new TokenSigner(List.of("short:" + encodeBase64(new byte[16])), 12));
+        assertThrows(IllegalArgumentException.class, () -> new TokenSigner(List.of("a.b:" + encodeBase64(new byte[32])), 12));
+    }
+    
+    private static String key(String id, char fill) {
+        byte[] secret = new byte[32];
+        Arrays.fill(secret, (byte) fill);
+        return id + ":" + encodeBase64(secret);
+    }
+    
+    private static String encodeBase64(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+    
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.SoloFocus.io.dto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionRecordDTOTest {
+    
+    private static ValidatorFactory factory;
+    private static Validator validator;
+    
+    @BeforeAll
+    static void createValidator() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+    
+    @AfterAll
+    static void closeValidator() {
+        factory.close();
+    }
+    
+    @Test
+    void acceptsFinishedSession() {
+        LocalDateTime start = LocalDateTime.now().minusHours(2);
+        
+        assertTrue(violations(record(start, start.plusMinutes(25), 25)).isEmpty());
+        assertTrue(violations(record(start, null, SessionRecordDTO.MAX_DURATION_MINUTES)).isEmpty());
+    }
+    
+    @Test
+    void rejectsFutureTimes() {
+        LocalDateTime future = LocalDateTime.now().plusDays(1);
+        
+        assertEquals(Set.of("Start time cannot be in the future", "End time cannot be in the future"),
+                violations(record(future, future.plusMinutes(25), 25)));
+        assertEquals(Set.of("End time cannot be in the future"),
+                violations(record(LocalDateTime.now().minusHours(1), future, 25)));
+    }
+    
+    @Test
+    void rejectsEndBeforeStart() {
+        LocalDateTime start = LocalDateTime.now().minusHours(1);
+        
+        assertEquals(Set.of("End time cannot be before start time"),
+                violations(record(start, start.minusMinutes(1), 25)));
+    }
+    
+    @Test
+    void rejectsDurationsOutsideOneDay() {
+        LocalDateTime start = LocalDateTime.of(1971, 1, 1, 9, 0);
+        
+        assertEquals(Set.of("Duration cannot exceed 24 hours"), violations(record(start, null, 100_000)));
+        assertEquals(Set.of("Duration cannot be negative"), violations(record(start, null, -1)));
+    }
+    
+    private static Set<String> violations(SessionRecordDTO record) {
+        return validator.validate(record).stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toSet());
+    }
+    
+    private static SessionRecordDTO record(LocalDateTime start, LocalDateTime end, int minutes) {
+        SessionRecordDTO record = new SessionRecordDTO();
+        record.setSessionType("pomodoro");
+        record.setStartTime(start);
+        record.setEndTime(end);
+        record.setDurationMinutes(minutes);
+        return record;
+    }
+}
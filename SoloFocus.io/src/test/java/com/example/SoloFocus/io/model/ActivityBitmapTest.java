@@ -0,0 +1,163 @@
+package com.example.SoloFocus.io.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActivityBitmapTest {
+    
+    // First day of a word, so days just before it fall in the previous word
+    private static final LocalDate BOUNDARY = LocalDate.ofEpochDay(64L * 320);
+    
+    @Test
+    void emptyBitmapHasNoRuns() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        
+        assertTrue(bitmap.isEmpty());
+        assertNull(bitmap.lastActiveDay());
+        assertFalse(bitmap.isSet(BOUNDARY));
+        assertEquals(0, bitmap.runEndingAt(BOUNDARY));
+        assertEquals(0, bitmap.longestRun());
+        assertTrue(ActivityBitmap.fromBytes(null, null).isEmpty());
+    }
+    
+    @Test
+    void singleDayIsARunOfOne() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        bitmap.set(BOUNDARY.plusDays(10));
+        
+        assertEquals(1, bitmap.runEndingAt(BOUNDARY.plusDays(10)));
+        assertEquals(0, bitmap.runEndingAt(BOUNDARY.plusDays(11)));
+        assertEquals(0, bitmap.runEndingAt(BOUNDARY.plusDays(9)));
+        assertEquals(1, bitmap.longestRun());
+        assertEquals(BOUNDARY.plusDays(10), bitmap.lastActiveDay());
+    }
+    
+    @Test
+    void runsCrossWordBoundaries() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        for (int i = -3; i <= 2; i++) {
+            bitmap.set(BOUNDARY.plusDays(i));
+        }
+        
+        assertEquals(6, bitmap.runEndingAt(BOUNDARY.plusDays(2)));
+        assertEquals(4, bitmap.runEndingAt(BOUNDARY));
+        assertEquals(3, bitmap.runEndingAt(BOUNDARY.minusDays(1)));
+        assertEquals(6, bitmap.longestRun());
+    }
+    
+    // Whole words of activity followed by a partial one
+    @Test
+    void runsSpanningSeveralFullWords() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        for (int i = 0; i < 64 * 3 + 5; i++) {
+            bitmap.set(BOUNDARY.plusDays(i));
+        }
+        
+        assertEquals(64 * 3 + 5, bitmap.runEndingAt(BOUNDARY.plusDays(64 * 3 + 4)));
+        assertEquals(64 * 2, bitmap.runEndingAt(BOUNDARY.plusDays(127)));
+        assertEquals(64 * 3 + 5, bitmap.longestRun());
+    }
+    
+    // The word with the run's last days must still count when every earlier word is full
+    @Test
+    void runEndingAtTopBitOfAFullWord() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        for (int i = 0; i < 128; i++) {
+            bitmap.set(BOUNDARY.plusDays(i));
+        }
+        
+        assertEquals(128, bitmap.runEndingAt(BOUNDARY.plusDays(127)));
+        assertEquals(128, bitmap.longestRun());
+    }
+    
+    @Test
+    void gapOfOneDayEndsTheRun() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        bitmap.set(BOUNDARY.minusDays(2));
+        bitmap.set(BOUNDARY.minusDays(1));
+        bitmap.set(BOUNDARY.plusDays(1));
+        bitmap.set(BOUNDARY.plusDays(2));
+        bitmap.set(BOUNDARY.plusDays(3));
+        
+        assertEquals(3, bitmap.runEndingAt(BOUNDARY.plusDays(3)));
+        assertEquals(0, bitmap.runEndingAt(BOUNDARY));
+        assertEquals(2, bitmap.runEndingAt(BOUNDARY.minusDays(1)));
+        assertEquals(3, bitmap.longestRun());
+    }
+    
+    // Days before the origin prepend words; the days already set keep their dates
+    @Test
+    void prependingDaysBeforeTheOrigin() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        bitmap.set(BOUNDARY.plusDays(5));
+        long origin = bitmap.getOriginDay();
+        
+        bitmap.set(BOUNDARY.minusDays(200));
+        bitmap.set(BOUNDARY.minusDays(1));
+        
+        assertTrue(bitmap.getOriginDay() < origin);
+        assertEquals(0, bitmap.getOriginDay() % 64);
+        assertTrue(bitmap.isSet(BOUNDARY.plusDays(5)));
+        assertTrue(bitmap.isSet(BOUNDARY.minusDays(200)));
+        assertTrue(bitmap.isSet(BOUNDARY.minusDays(1)));
+        assertFalse(bitmap.isSet(BOUNDARY));
+        assertEquals(BOUNDARY.plusDays(5), bitmap.lastActiveDay());
+        
+        for (int i = 0; i < 5; i++) {
+            bitmap.set(BOUNDARY.plusDays(i));
+        }
+        assertEquals(7, bitmap.runEndingAt(BOUNDARY.plusDays(5)));
+        assertEquals(7, bitmap.longestRun());
+    }
+    
+    @Test
+    void bytesRoundTrip() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        bitmap.set(BOUNDARY.minusDays(70));
+        bitmap.set(BOUNDARY.plusDays(70));
+        
+        ActivityBitmap copy = ActivityBitmap.fromBytes(bitmap.getOriginDay(), bitmap.toBytes());
+        
+        assertTrue(copy.isSet(BOUNDARY.minusDays(70)));
+        assertTrue(copy.isSet(BOUNDARY.plusDays(70)));
+        assertEquals(bitmap.getOriginDay(), copy.getOriginDay());
+        assertEquals(1, copy.longestRun());
+    }
+    
+    @Test
+    void matchesDayByDayCount() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            ActivityBitmap bitmap = new ActivityBitmap();
+            TreeSet<LocalDate> days = new TreeSet<>();
+            for (int i = 0; i < 400; i++) {
+                // Mostly active days, so long runs form across words
+                if (random.nextInt(10) > 0) {
+                    LocalDate day = BOUNDARY.plusDays(random.nextInt(500) - 250);
+                    bitmap.set(day);
+                    days.add(day);
+                }
+            }
+            
+            int longest = 0;
+            for (LocalDate day = days.first(); !day.isAfter(days.last()); day = day.plusDays(1)) {
+                int run = 0;
+                while (days.contains(day.minusDays(run))) {
+                    run++;
+                }
+                assertEquals(run, bitmap.runEndingAt(day), day.toString());
+                longest = Math.max(longest, run);
+            }
+            assertEquals(longest, bitmap.longestRun());
+            assertEquals(days.last(), bitmap.lastActiveDay());
+        }
+    }
+}
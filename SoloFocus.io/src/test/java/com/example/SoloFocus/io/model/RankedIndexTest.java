@@ -0,0 +1,119 @@
+package com.example.SoloFocus.io.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Checks the treap against a sorted list holding the same keys
+class RankedIndexTest {
+    
+    private static final Comparator<long[]> ORDER = Comparator.<long[]>comparingLong(key -> -key[0])
+            .thenComparingLong(key -> key[1]);
+    
+    @Test
+    void matchesSortedListThroughRandomInsertsAndRemoves() {
+        Random random = new Random(42);
+        RankedIndex index = new RankedIndex(16);
+        List<long[]> oracle = new ArrayList<>();
+        
+        for (int step = 0; step < 20_000; step++) {
+            if (oracle.isEmpty() || random.nextInt(3) > 0) {
+                // Few distinct scores, so ties are ordered by id
+                long[] key = {random.nextInt(50), random.nextInt(1_000_000)};
+                if (!contains(oracle, key)) {
+                    index.insert(key[0], key[1]);
+                    insertSorted(oracle, key);
+                }
+            } else {
+                long[] key = oracle.remove(random.nextInt(oracle.size()));
+                assertTrue(index.remove(key[0], key[1]));
+            }
+            
+            if (step % 97 == 0) {
+                assertMatches(oracle, index, random);
+            }
+        }
+        assertMatches(oracle, index, random);
+    }
+    
+    @Test
+    void removeOfMissingKeyLeavesIndexUnchanged() {
+        RankedIndex index = new RankedIndex();
+        index.insert(10, 1);
+        index.insert(10, 2);
+        
+        assertFalse(index.remove(10, 3));
+        assertFalse(index.remove(11, 1));
+        assertEquals(2, index.size());
+        assertArrayEquals(new long[] {10, 1, 10, 2}, index.range(0, 10));
+    }
+    
+    @Test
+    void equalScoresShareARank() {
+        RankedIndex index = new RankedIndex();
+        index.insert(30, 5);
+        index.insert(20, 1);
+        index.insert(20, 2);
+        index.insert(10, 3);
+        
+        assertEquals(0, index.countAbove(30));
+        assertEquals(1, index.countAbove(20));
+        assertEquals(3, index.countAbove(10));
+        assertEquals(4, index.countAbove(Long.MIN_VALUE));
+    }
+    
+    @Test
+    void rangePastTheEndIsTruncated() {
+        RankedIndex index = new RankedIndex();
+        index.insert(5, 1);
+        index.insert(4, 2);
+        
+        assertArrayEquals(new long[] {4, 2}, index.range(1, 10));
+        assertEquals(0, index.range(2, 10).length);
+        assertEquals(0, index.range(0, 0).length);
+    }
+    
+    private static void assertMatches(List<long[]> oracle, RankedIndex index, Random random) {
+        assertEquals(oracle.size(), index.size());
+        
+        long[] expected = new long[oracle.size() * 2];
+        for (int i = 0; i < oracle.size(); i++) {
+            expected[i * 2] = oracle.get(i)[0];
+            expected[i * 2 + 1] = oracle.get(i)[1];
+        }
+        assertArrayEquals(expected, index.range(0, oracle.size()));
+        
+        for (int i = 0; i < 5 && !oracle.isEmpty(); i++) {
+            int offset = random.nextInt(oracle.size());
+            int limit = random.nextInt(20) + 1;
+            int end = Math.min(oracle.size(), offset + limit);
+            long[] window = new long[(end - offset) * 2];
+            System.arraycopy(expected, offset * 2, window, 0, window.length);
+            assertArrayEquals(window, index.range(offset, limit));
+        }
+        
+        for (long score = -1; score <= 50; score += 7) {
+            long above = score;
+            assertEquals(oracle.stream().filter(key -> key[0] > above).count(), index.countAbove(score));
+        }
+    }
+    
+    private static boolean contains(List<long[]> oracle, long[] key) {
+        int at = Collections.binarySearch(oracle, key, ORDER);
+        return at >= 0;
+    }
+    
+    private static void insertSorted(List<long[]> oracle, long[] key) {
+        int at = Collections.binarySearch(oracle, key, ORDER);
+        oracle.add(-at - 1, key);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.SoloFocus.io.repository.eventlog;
+
+import com.example.SoloFocus.io.model.FocusSession;
+import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.model.UserDailyFocus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventLogStoreTest {
+    
+    private static final LocalDate DAY = LocalDate.of(2026, 10, 17);
+    private static final long MEGABYTE = 1024 * 1024;
+    
+    @TempDir
+    Path directory;
+    
+    // Without a checkpoint the whole log is replayed, including deletes
+    @Test
+    void recoversUnclosedStoreByReplay() throws IOException {
+        EventLogStore store = open(100_000);
+        User ada = store.saveUser(new User("ada", "ada@example.com", "hash"));
+        User bob = store.saveUser(new User("bob", "bob@example.com", "hash"));
+        FocusSession first = store.saveSession(session(ada, 0, 25));
+        store.saveSession(session(ada, 1, 50));
+        store.saveSession(session(bob, 2, 15));
+        store.deleteSession(first.getId());
+        store.saveDailyFocus(new UserDailyFocus(ada, DAY, 25, 1));
+        store.addToDay(ada.getId(), DAY, 50, 1);
+        
+        // Not closed, as after a crash
+        EventLogStore recovered = open(100_000);
+        
+        assertEquals(2, recovered.countUsers());
+        assertEquals("ada", recovered.findUserByUsername("ada").orElseThrow().getUsername());
+        assertEquals(List.of(50), durations(recovered, ada.getId()));
+        assertEquals(List.of(15), durations(recovered, bob.getId()));
+        UserDailyFocus day = recovered.findDailyFocus(ada.getId(), DAY, DAY).get(0);
+        assertEquals(75, day.getPomodoroMinutes());
+        assertEquals(2, day.getSessionCount());
+        
+        // New ids continue after the recovered ones
+        FocusSession next = recovered.saveSession(session(bob, 3, 5));
+        assertTrue(next.getId() > first.getId() + 2);
+        recovered.close();
+    }
+    
+    @Test
+    void recoversFromCheckpointAndTheRecordsAfterIt() throws IOException {
+        EventLogStore store = open(100_000);
+        User ada = store.saveUser(new User("ada", "ada@example.com", "hash"));
+        store.saveSession(session(ada, 0, 25));
+        store.close();
+        assertTrue(Files.exists(directory.resolve("checkpoint")));
+        
+        EventLogStore reopened = open(100_000);
+        FocusSession updated = reopened.findSessionsByUser(ada.getId()).get(0);
+        updated.setDurationMinutes(30);
+        reopened.saveSession(updated);
+        reopened.saveSession(session(ada, 1, 45));
+        
+        EventLogStore recovered = open(100_000);
+        
+        assertEquals(List.of(30, 45), durations(recovered, ada.getId()));
+        recovered.close();
+    }
+    
+    // Rewriting the same sessions leaves mostly dead records, so maintenance compacts the log
+    @Test
+    void recoversAfterCompaction() throws Exception {
+        EventLogStore store = open(1_000);
+        User ada = store.saveUser(new User("ada", "ada@example.com", "hash"));
+        User bob = store.saveUser(new User("bob", "bob@example.com", "hash"));
+        List<FocusSession> sessions = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            sessions.add(store.saveSession(session(i % 2 == 0 ? ada : bob, i, 0)));
+        }
+        for (int round = 1; round <= 120; round++) {
+            for (FocusSession session : sessions) {
+                session.setDurationMinutes(round);
+                store.saveSession(session);
+            }
+        }
+        store.deleteSession(sessions.get(0).getId());
+        store.close();
+        
+        // Segment files are named after their first position, so the newest shows how far the log grew
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Long> bases = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".segment"))
+                    .map(name -> Long.parseLong(name.substring(0, name.indexOf('.'))))
+                    .toList();
+            long written = bases.stream().mapToLong(Long::longValue).max().orElseThrow() / MEGABYTE + 1;
+            assertTrue(written > 3, "segments written: " + written);
+            assertTrue(bases.size() < written, "segments left: " + bases.size() + " of " + written);
+        }
+        
+        EventLogStore recovered = open(1_000);
+        assertEquals(399, recovered.countSessions());
+        assertTrue(durations(recovered, ada.getId()).stream().allMatch(minutes -> minutes == 120));
+        assertEquals(200, durations(recovered, bob.getId()).size());
+        recovered.close();
+    }
+    
+    private EventLogStore open(int checkpointInterval) throws IOException {
+        EventLogStore store = new EventLogStore(directory.toString(), 1, false, checkpointInterval, 0.5);
+        store.recover();
+        return store;
+    }
+    
+    private static FocusSession session(User user, int minute, int duration) {
+        LocalDateTime start = DAY.atTime(8, 0).plusMinutes(minute);
+        FocusSession session = new FocusSession(user, start, "pomodoro");
+        session.setEndTime(start.plusMinutes(duration));
+        session.setDurationMinutes(duration);
+        return session;
+    }
+    
+    private static List<Integer> durations(EventLogStore store, Long userId) {
+        return store.findSessionsByUser(userId).stream().map(FocusSession::getDurationMinutes).toList();
+    }
+}
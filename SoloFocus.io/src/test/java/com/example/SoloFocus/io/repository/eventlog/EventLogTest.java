@@ -0,0 +1,151 @@
+package com.example.SoloFocus.io.repository.eventlog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventLogTest {
+    
+    private static final int SEGMENT_BYTES = 256;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void reopenedLogReplaysEveryRecordAcrossSegments() throws IOException {
+        List<Long> positions = new ArrayList<>();
+        long end;
+        try (EventLog log = new EventLog(directory, SEGMENT_BYTES, false)) {
+            for (int i = 0; i < 40; i++) {
+                positions.add(log.append(EventLogStore.SESSION, payload(i)));
+            }
+            end = log.getEnd();
+            assertTrue(log.closedSegments().size() > 1);
+        }
+        
+        try (EventLog log = new EventLog(directory, SEGMENT_BYTES, false)) {
+            List<String> replayed = scan(log, 0, positions);
+            
+            assertEquals(40, replayed.size());
+            for (int i = 0; i < 40; i++) {
+                assertEquals("record-" + i, replayed.get(i));
+                assertEquals("record-" + i, new String(log.read(positions.get(i)), StandardCharsets.UTF_8));
+            }
+            assertEquals(end, log.getEnd());
+            assertTrue(log.isComplete());
+        }
+    }
+    
+    @Test
+    void scanFromPositionSkipsEarlierRecords() throws IOException {
+        List<Long> positions = new ArrayList<>();
+        try (EventLog log = new EventLog(directory, SEGMENT_BYTES, false)) {
+            for (int i = 0; i < 30; i++) {
+                positions.add(log.append(EventLogStore.USER, payload(i)));
+            }
+            List<String> replayed = scan(log, positions.get(17), positions.subList(17, 30));
+            
+            assertEquals(13, replayed.size());
+            assertEquals("record-17", replayed.get(0));
+        }
+    }
+    
+    // A record whose checksum fails is treated as the end of the log and overwritten by the next append
+    @Test
+    void recoveryDropsCorruptTailAndAppendsInItsPlace() throws IOException {
+        long last;
+        try (EventLog log = new EventLog(directory, SEGMENT_BYTES, false)) {
+            log.append(EventLogStore.USER, payload(0));
+            log.append(EventLogStore.USER, payload(1));
+            last = log.append(EventLogStore.USER, payload(2));
+        }
+        corrupt(segmentFile(0), last + 6);
+        
+        try (EventLog log = new EventLog(directory, SEGMENT_BYTES, false)) {
+            assertEquals(2, scan(log, 0, null).size());
+            assertEquals(last, log.getEnd());
+            assertEquals(last, log.append(EventLogStore.USER, payload(3)));
+        }
+        
+        try (EventLog log = new EventLog(directory, SEGMENT_BYTES, false)) {
+            assertEquals(List.of("record-0", "record-1", "record-3"), scan(log, 0, null));
+        }
+    }
+    
+    // A crash between writing the body and the length leaves a length with no valid record behind it
+    @Test
+    void recoveryClearsTornRecordAfterTheLastGoodOne() throws IOException {
+        long end;
+        try (EventLog log = new EventLog(directory, SEGMENT_BYTES, false)) {
+            log.append(EventLogStore.USER, payload(0));
+            end = log.getEnd();
+        }
+        try (FileChannel channel = FileChannel.open(segmentFile(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putInt(40).putInt(0x12345678).flip(), end);
+        }
+        
+        try (EventLog log = new EventLog(directory, SEGMENT_BYTES, false)) {
+            assertEquals(List.of("record-0"), scan(log, 0, null));
+            assertEquals(end, log.getEnd());
+            log.append(EventLogStore.USER, payload(1));
+        }
+        try (EventLog log = new EventLog(directory, SEGMENT_BYTES, false)) {
+            assertEquals(List.of("record-0", "record-1"), scan(log, 0, null));
+        }
+    }
+    
+    @Test
+    void deletedSegmentMakesLogIncomplete() throws IOException {
+        try (EventLog log = new EventLog(directory, SEGMENT_BYTES, false)) {
+            for (int i = 0; i < 40; i++) {
+                log.append(EventLogStore.SESSION, payload(i));
+            }
+            log.deleteSegment(log.closedSegments().get(0));
+        }
+        try (EventLog log = new EventLog(directory, SEGMENT_BYTES, false)) {
+            assertFalse(log.isComplete());
+            assertEquals(SEGMENT_BYTES, log.getStart());
+        }
+    }
+    
+    private Path segmentFile(long base) {
+        return directory.resolve(String.format("%020d.segment", base));
+    }
+    
+    private static void corrupt(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, position);
+            one.put(0, (byte) (one.get(0) ^ 0x40)).rewind();
+            channel.write(one, position);
+        }
+    }
+    
+    // Replays from the given position, checking positions against the expected ones when given
+    private static List<String> scan(EventLog log, long from, List<Long> expectedPositions) throws IOException {
+        List<String> replayed = new ArrayList<>();
+        log.scan(from, (position, type, payload) -> {
+            if (expectedPositions != null) {
+                assertEquals(expectedPositions.get(replayed.size()), position);
+            }
+            replayed.add(new String(payload, StandardCharsets.UTF_8));
+        });
+        return replayed;
+    }
+    
+    private static byte[] payload(int i) {
+        return ("record-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.SoloFocus.io.service;
+
+import com.example.SoloFocus.io.model.ActiveSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ActiveSessionJournalTest {
+    
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 14, 9, 30, 15, 123_456_789);
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void replayKeepsSessionsThatWereNotEnded() throws IOException {
+        Path path = directory.resolve("sessions.journal");
+        ActiveSessionJournal journal = open(path);
+        journal.appendStarted(new ActiveSession(-1, 1L, "pomodoro", START));
+        journal.appendStarted(new ActiveSession(-2, 2L, "short_break", START.plusMinutes(1)));
+        journal.appendEnded(new ActiveSession(-1, 1L, "pomodoro", START));
+        journal.appendStarted(new ActiveSession(-3, 3L, "pomodoro", START.plusMinutes(2)));
+        journal.close();
+        
+        Map<Long, ActiveSession> sessions = new HashMap<>();
+        long maxToken = new ActiveSessionJournal(path, false).replay(sessions);
+        
+        assertEquals(3, maxToken);
+        assertEquals(2, sessions.size());
+        assertNull(sessions.get(1L));
+        assertSession(new ActiveSession(-2, 2L, "short_break", START.plusMinutes(1)), sessions.get(2L));
+        assertSession(new ActiveSession(-3, 3L, "pomodoro", START.plusMinutes(2)), sessions.get(3L));
+    }
+    
+    // An end that belongs to an earlier session of the user must not end the current one
+    @Test
+    void replayIgnoresEndOfAnOlderSession() throws IOException {
+        Path path = directory.resolve("sessions.journal");
+        ActiveSessionJournal journal = open(path);
+        journal.appendStarted(new ActiveSession(-1, 1L, "pomodoro", START));
+        journal.appendStarted(new ActiveSession(-2, 1L, "pomodoro", START.plusMinutes(30)));
+        journal.appendEnded(new ActiveSession(-1, 1L, "pomodoro", START));
+        journal.close();
+        
+        Map<Long, ActiveSession> sessions = new HashMap<>();
+        new ActiveSessionJournal(path, false).replay(sessions);
+        
+        assertSession(new ActiveSession(-2, 1L, "pomodoro", START.plusMinutes(30)), sessions.get(1L));
+    }
+    
+    @Test
+    void replayDropsTornTail() throws IOException {
+        Path path = directory.resolve("sessions.journal");
+        ActiveSessionJournal journal = open(path);
+        journal.appendStarted(new ActiveSession(-1, 1L, "pomodoro", START));
+        long complete = Files.size(path);
+        journal.appendStarted(new ActiveSession(-2, 2L, "pomodoro", START));
+        journal.close();
+        
+        // The crash left only part of the second record
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(complete + 7);
+        }
+        
+        Map<Long, ActiveSession> sessions = new HashMap<>();
+        long maxToken = new ActiveSessionJournal(path, false).replay(sessions);
+        
+        assertEquals(1, maxToken);
+        assertEquals(1, sessions.size());
+        assertSession(new ActiveSession(-1, 1L, "pomodoro", START), sessions.get(1L));
+    }
+    
+    @Test
+    void replayDropsRecordWithBadChecksum() throws IOException {
+        Path path = directory.resolve("sessions.journal");
+        ActiveSessionJournal journal = open(path);
+        journal.appendStarted(new ActiveSession(-1, 1L, "pomodoro", START));
+        long complete = Files.size(path);
+        journal.appendStarted(new ActiveSession(-2, 2L, "pomodoro", START));
+        journal.close();
+        
+        // Flip a byte of the second record's user id
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            long position = complete + 4 + 1 + 8 + 7;
+            channel.read(one, position);
+            one.put(0, (byte) (one.get(0) ^ 0x01)).rewind();
+            channel.write(one, position);
+        }
+        
+        Map<Long, ActiveSession> sessions = new HashMap<>();
+        new ActiveSessionJournal(path, false).replay(sessions);
+        
+        assertEquals(1, sessions.size());
+        assertSession(new ActiveSession(-1, 1L, "pomodoro", START), sessions.get(1L));
+    }
+    
+    @Test
+    void replayStopsAtImplausibleLength() throws IOException {
+        Path path = directory.resolve("sessions.journal");
+        ActiveSessionJournal journal = open(path);
+        journal.appendStarted(new ActiveSession(-1, 1L, "pomodoro", START));
+        journal.close();
+        
+        Files.write(path, new byte[] {0x7f, 0, 0, 0, 1, 2, 3}, StandardOpenOption.APPEND);
+        
+        Map<Long, ActiveSession> sessions = new HashMap<>();
+        new ActiveSessionJournal(path, false).replay(sessions);
+        
+        assertEquals(1, sessions.size());
+    }
+    
+    @Test
+    void compactionKeepsOnlyTheGivenSessions() throws IOException {
+        Path path = directory.resolve("sessions.journal");
+        ActiveSessionJournal journal = open(path);
+        journal.appendStarted(new ActiveSession(-1, 1L, "pomodoro", START));
+        journal.appendEnded(new ActiveSession(-1, 1L, "pomodoro", START));
+        journal.compact(List.of(new ActiveSession(-2, 2L, "pomodoro", START)));
+        journal.appendStarted(new ActiveSession(-3, 3L, "long_break", START));
+        journal.close();
+        
+        assertEquals(2, journal.getRecords());
+        Map<Long, ActiveSession> sessions = new HashMap<>();
+        new ActiveSessionJournal(path, false).replay(sessions);
+        
+        assertEquals(2, sessions.size());
+        assertSession(new ActiveSession(-2, 2L, "pomodoro", START), sessions.get(2L));
+        assertSession(new ActiveSession(-3, 3L, "long_break", START), sessions.get(3L));
+    }
+    
+    // A journal only accepts appends once compact() has opened its file
+    private static ActiveSessionJournal open(Path path) throws IOException {
+        ActiveSessionJournal journal = new ActiveSessionJournal(path, true);
+        journal.compact(List.of());
+        return journal;
+    }
+    
+    private static void assertSession(ActiveSession expected, ActiveSession actual) {
+        assertEquals(expected.getToken(), actual.getToken());
+        assertEquals(expected.getUserId(), actual.getUserId());
+        assertEquals(expected.getSessionType(), actual.getSessionType());
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+    }
+}
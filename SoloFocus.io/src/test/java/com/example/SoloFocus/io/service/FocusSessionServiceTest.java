@@ -0,0 +1,112 @@
+package com.example.SoloFocus.io.service;
+
+import com.example.SoloFocus.io.dto.SessionRecordDTO;
+import com.example.SoloFocus.io.event.SessionCompletedEvent;
+import com.example.SoloFocus.io.model.FocusSession;
+import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.repository.FocusSessionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FocusSessionServiceTest {
+    
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 17, 9, 0);
+    
+    @Mock
+    private FocusSessionRepository focusSessionRepository;
+    
+    @Mock
+    private UserService userService;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private ActiveSessionRegistry activeSessionRegistry;
+    
+    @InjectMocks
+    private FocusSessionService focusSessionService;
+    
+    @Test
+    void endingAnotherUsersSessionIsRejected() {
+        FocusSession session = persistedSession(user(1L), 10L);
+        when(focusSessionRepository.findById(10L)).thenReturn(Optional.of(session));
+        
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> focusSessionService.endSession(2L, "10", 600));
+        
+        assertEquals("Session not found", error.getMessage());
+        assertNull(session.getDurationMinutes());
+        verify(focusSessionRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+    
+    @Test
+    void endingOwnSessionRecordsItsDuration() {
+        FocusSession session = persistedSession(user(1L), 10L);
+        when(focusSessionRepository.findById(10L)).thenReturn(Optional.of(session));
+        when(focusSessionRepository.save(session)).thenReturn(session);
+        
+        focusSessionService.endSession(1L, "10", 25);
+        
+        assertEquals(25, session.getDurationMinutes());
+        verify(eventPublisher).publishEvent(any(SessionCompletedEvent.class));
+    }
+    
+    // A retried upload repeats sessions that are already stored, and may repeat them within the batch
+    @Test
+    void recordingSkipsSessionsAlreadyStored() {
+        User user = user(1L);
+        when(userService.findByIdForUpdate(1L)).thenReturn(user);
+        when(focusSessionRepository.findByUserAndStartTimeBetween(user, START, START.plusHours(1)))
+                .thenReturn(List.of(persistedSession(user, 10L)));
+        when(focusSessionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        List<FocusSession> saved = focusSessionService.recordSessions(1L, List.of(
+                record(START, 25), record(START.plusHours(1), 25), record(START.plusHours(1), 25)));
+        
+        assertEquals(1, saved.size());
+        assertEquals(START.plusHours(1), saved.get(0).getStartTime());
+        assertEquals(START.plusHours(1).plusMinutes(25), saved.get(0).getEndTime());
+        verify(eventPublisher, times(1)).publishEvent(any(SessionCompletedEvent.class));
+    }
+    
+    static User user(Long id) {
+        User user = new User("user" + id, "user" + id + "@example.com", "hash");
+        user.setId(id);
+        return user;
+    }
+    
+    private static SessionRecordDTO record(LocalDateTime start, int minutes) {
+        SessionRecordDTO record = new SessionRecordDTO();
+        record.setSessionType("pomodoro");
+        record.setStartTime(start);
+        record.setDurationMinutes(minutes);
+        return record;
+    }
+    
+    private static FocusSession persistedSession(User user, Long id) {
+        FocusSession session = new FocusSession(user, START, "pomodoro");
+        session.setId(id);
+        return session;
+    }
+}
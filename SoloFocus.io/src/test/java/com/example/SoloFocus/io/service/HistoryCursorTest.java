@@ -0,0 +1,42 @@
+package com.example.SoloFocus.io.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HistoryCursorTest {
+    
+    @Test
+    void roundTripKeepsStartTimeAndId() {
+        assertRoundTrip(LocalDateTime.of(2026, 10, 17, 9, 0), 1);
+        assertRoundTrip(LocalDateTime.of(2026, 10, 17, 9, 0, 59), 42);
+        assertRoundTrip(LocalDateTime.of(2026, 10, 17, 9, 0, 0, 123_456_789), Long.MAX_VALUE);
+    }
+    
+    // The encoded form goes into a query parameter as is
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String encoded = new FocusSessionService.HistoryCursor(LocalDateTime.of(2026, 1, 1, 23, 59, 59, 999_000_000), 99_999).encode();
+        
+        assertFalse(encoded.contains("+") || encoded.contains("/") || encoded.contains("="), encoded);
+    }
+    
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(RuntimeException.class, () -> FocusSessionService.HistoryCursor.from("not a cursor"));
+        assertThrows(RuntimeException.class, () -> FocusSessionService.HistoryCursor.from(""));
+        assertThrows(RuntimeException.class, () -> FocusSessionService.HistoryCursor.from(
+                new FocusSessionService.HistoryCursor(LocalDateTime.of(2026, 1, 1, 0, 0), 7).encode().substring(3)));
+    }
+    
+    private static void assertRoundTrip(LocalDateTime startTime, long id) {
+        String encoded = new FocusSessionService.HistoryCursor(startTime, id).encode();
+        FocusSessionService.HistoryCursor decoded = FocusSessionService.HistoryCursor.from(encoded);
+        
+        assertEquals(encoded, decoded.encode());
+    }
+}
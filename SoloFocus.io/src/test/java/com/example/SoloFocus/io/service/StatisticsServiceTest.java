@@ -0,0 +1,172 @@
+package com.example.SoloFocus.io.service;
+
+import com.example.SoloFocus.io.event.SessionCompletedEvent;
+import com.example.SoloFocus.io.model.FocusSession;
+import com.example.SoloFocus.io.model.User;
+import com.example.SoloFocus.io.model.UserDailyFocus;
+import com.example.SoloFocus.io.repository.FocusSessionRepository;
+import com.example.SoloFocus.io.repository.UserDailyFocusRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// applySessionsCompleted produces every dashboard total, one delta per finished session
+@ExtendWith(MockitoExtension.class)
+class StatisticsServiceTest {
+    
+    private static final LocalDate DAY = LocalDate.of(2026, 10, 16);
+    private static final LocalDate NEXT_DAY = DAY.plusDays(1);
+    
+    @Mock
+    private FocusSessionRepository focusSessionRepository;
+    
+    @Mock
+    private UserDailyFocusRepository userDailyFocusRepository;
+    
+    @Mock
+    private UserService userService;
+    
+    @InjectMocks
+    private StatisticsService statisticsService;
+    
+    private User user;
+    private final List<FocusSession> sessions = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        user = FocusSessionServiceTest.user(1L);
+        user.setTotalFocusHours(1.0);
+        user.setStatisticsVersion(5L);
+        when(userService.findByIdForUpdate(1L)).thenReturn(user);
+        lenient().when(focusSessionRepository.findAllById(anyList())).thenReturn(sessions);
+    }
+    
+    @Test
+    void sumsNewSessionsPerDay() {
+        session(1L, DAY.atTime(9, 0), "pomodoro");
+        session(2L, DAY.atTime(10, 0), "pomodoro");
+        session(3L, NEXT_DAY.atTime(8, 0), "pomodoro");
+        when(userDailyFocusRepository.addToDay(user, DAY, 75, 2)).thenReturn(1);
+        when(userDailyFocusRepository.addToDay(user, NEXT_DAY, 25, 1)).thenReturn(0);
+        
+        Set<LocalDate> changed = statisticsService.applySessionsCompleted(1L, List.of(
+                event(1L, 25, null), event(2L, 50, null), event(3L, 25, null)));
+        
+        assertEquals(Set.of(DAY, NEXT_DAY), changed);
+        assertEquals(1.0 + 100 / 60.0, user.getTotalFocusHours(), 1e-9);
+        assertEquals(NEXT_DAY.atTime(8, 0), user.getLastSessionTime());
+        assertEquals(2, user.getCurrentStreak());
+        assertEquals(2, user.getMaxStreak());
+        assertEquals(6L, user.getStatisticsVersion());
+        
+        // The day without a rollup row yet gets one inserted
+        List<UserDailyFocus> inserted = savedDays();
+        assertEquals(1, inserted.size());
+        assertEquals(NEXT_DAY, inserted.get(0).getFocusDate());
+        assertEquals(25, inserted.get(0).getPomodoroMinutes());
+        assertEquals(1, inserted.get(0).getSessionCount());
+        verify(userService).save(user);
+    }
+    
+    // Ending a session again replaces the minutes counted the first time, without counting a second session
+    @Test
+    void reEndedSessionAppliesOnlyTheChange() {
+        session(1L, DAY.atTime(9, 0), "pomodoro");
+        session(2L, DAY.atTime(10, 0), "pomodoro");
+        when(userDailyFocusRepository.addToDay(user, DAY, 15 - 10, 0)).thenReturn(1);
+        
+        statisticsService.applySessionsCompleted(1L, List.of(event(1L, 40, 25), event(2L, 20, 30)));
+        
+        assertEquals(1.0 + 5 / 60.0, user.getTotalFocusHours(), 1e-9);
+        assertEquals(List.of(), savedDays());
+    }
+    
+    // A session first ended with zero minutes was never counted, so ending it again counts it
+    @Test
+    void reEndingAnUncountedSessionCountsIt() {
+        session(1L, DAY.atTime(9, 0), "pomodoro");
+        when(userDailyFocusRepository.addToDay(user, DAY, 25, 1)).thenReturn(1);
+        
+        statisticsService.applySessionsCompleted(1L, List.of(event(1L, 25, 0)));
+        
+        assertEquals(1.0 + 25 / 60.0, user.getTotalFocusHours(), 1e-9);
+    }
+    
+    @Test
+    void skipsBreaksEmptySessionsAndMissingSessions() {
+        session(1L, DAY.atTime(9, 0), "short_break");
+        session(2L, DAY.atTime(10, 0), "pomodoro");
+        
+        Set<LocalDate> changed = statisticsService.applySessionsCompleted(1L, List.of(
+                event(1L, 5, null), event(2L, 0, null), event(3L, 25, null)));
+        
+        assertEquals(Set.of(), changed);
+        assertEquals(1.0, user.getTotalFocusHours(), 1e-9);
+        verify(userDailyFocusRepository, never()).addToDay(any(), any(), anyInt(), anyInt());
+        verify(userService).save(user);
+    }
+    
+    @Test
+    void mergedEventsForTheSameSessionAreAppliedInOrder() {
+        session(1L, DAY.atTime(9, 0), "pomodoro");
+        when(userDailyFocusRepository.addToDay(eq(user), eq(DAY), eq(30), eq(1))).thenReturn(1);
+        
+        statisticsService.applySessionsCompleted(1L, List.of(event(1L, 25, null), event(1L, 30, 25)));
+        
+        assertEquals(1.0 + 30 / 60.0, user.getTotalFocusHours(), 1e-9);
+        assertEquals(1, user.getMaxStreak());
+    }
+    
+    // The repair must not merge the request's copy, which a worker may have updated since
+    @Test
+    void recomputeWorksOnTheLockedRow() {
+        when(focusSessionRepository.getTotalFocusMinutes(user)).thenReturn(90L);
+        when(focusSessionRepository.getLastFocusSessionTime(user)).thenReturn(NEXT_DAY.atTime(8, 0));
+        when(focusSessionRepository.findFocusDays(user)).thenReturn(List.of(DAY, NEXT_DAY));
+        
+        statisticsService.updateUserStatistics(1L);
+        
+        assertEquals(1.5, user.getTotalFocusHours(), 1e-9);
+        assertEquals(2, user.getCurrentStreak());
+        assertEquals(6L, user.getStatisticsVersion());
+        verify(userService, never()).findById(any());
+        verify(userService).save(user);
+    }
+    
+    private void session(Long id, LocalDateTime start, String type) {
+        FocusSession session = new FocusSession(user, start, type);
+        session.setId(id);
+        sessions.add(session);
+    }
+    
+    private static SessionCompletedEvent event(Long sessionId, Integer minutes, Integer previousMinutes) {
+        return new SessionCompletedEvent(1L, sessionId, minutes, previousMinutes);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<UserDailyFocus> savedDays() {
+        ArgumentCaptor<List<UserDailyFocus>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userDailyFocusRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.SoloFocus.io.service;
+
+import com.example.SoloFocus.io.datasource.ReadYourWritesGuard;
+import com.example.SoloFocus.io.event.SessionCompletedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StatisticsUpdateWorkerTest {
+    
+    private static final Set<LocalDate> DAYS = Set.of(LocalDate.of(2026, 10, 17));
+    
+    @Mock
+    private StatisticsService statisticsService;
+    
+    @Mock
+    private DashboardCacheInvalidator dashboardCacheInvalidator;
+    
+    @Mock
+    private ReadYourWritesGuard readYourWritesGuard;
+    
+    @Mock
+    private DashboardUpdatePublisher dashboardUpdatePublisher;
+    
+    @Mock
+    private LeaderboardService leaderboardService;
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ThreadPoolTaskExecutor executor;
+    
+    @AfterEach
+    void shutDown() {
+        executor.shutdown();
+    }
+    
+    // Events for a user whose update is still queued join that update instead of queueing another
+    @Test
+    void mergesEventsQueuedForTheSameUser() throws InterruptedException {
+        StatisticsUpdateWorker worker = worker(10);
+        CountDownLatch release = blockWorkerThread();
+        SessionCompletedEvent first = event(1L, 10L);
+        SessionCompletedEvent second = event(1L, 11L);
+        SessionCompletedEvent other = event(2L, 12L);
+        when(statisticsService.applySessionsCompleted(anyLong(), any())).thenReturn(DAYS);
+        
+        worker.onSessionCompleted(first);
+        worker.onSessionCompleted(second);
+        worker.onSessionCompleted(other);
+        release.countDown();
+        
+        verify(statisticsService, timeout(5000)).applySessionsCompleted(1L, List.of(first, second));
+        verify(statisticsService, timeout(5000)).applySessionsCompleted(2L, List.of(other));
+        verify(dashboardUpdatePublisher, timeout(5000)).publish(1L, DAYS);
+        verify(dashboardUpdatePublisher, timeout(5000)).publish(2L, DAYS);
+        verify(dashboardCacheInvalidator).evict(1L);
+        verify(readYourWritesGuard).recordWrite(1L);
+        verify(leaderboardService).refresh(1L, DAYS);
+        assertEquals(1.0, meterRegistry.counter("statistics.updates.coalesced").count());
+        assertEquals(3.0, meterRegistry.counter("statistics.updates.received").count());
+    }
+    
+    // With the queue full, the thread publishing the event applies it itself
+    @Test
+    void appliesOnTheCallingThreadWhenTheQueueIsFull() throws InterruptedException {
+        StatisticsUpdateWorker worker = worker(0);
+        CountDownLatch release = blockWorkerThread();
+        AtomicReference<Thread> appliedOn = new AtomicReference<>();
+        when(statisticsService.applySessionsCompleted(anyLong(), any())).thenAnswer(invocation -> {
+            appliedOn.set(Thread.currentThread());
+            return DAYS;
+        });
+        
+        try {
+            worker.onSessionCompleted(event(1L, 10L));
+        } finally {
+            release.countDown();
+        }
+        
+        assertSame(Thread.currentThread(), appliedOn.get());
+        verify(dashboardCacheInvalidator).evict(1L);
+        assertEquals(1.0, meterRegistry.counter("statistics.updates.caller.runs").count());
+    }
+    
+    // The failed update is counted and nothing downstream sees a change that was not applied
+    @Test
+    void failedUpdateIsNotPublished() {
+        StatisticsUpdateWorker worker = worker(0);
+        when(statisticsService.applySessionsCompleted(anyLong(), any())).thenThrow(new RuntimeException("deadlock"));
+        
+        worker.onSessionCompleted(event(1L, 10L));
+        
+        waitForCount("statistics.updates.failures");
+        verify(dashboardCacheInvalidator, never()).evict(anyLong());
+        verify(dashboardUpdatePublisher, never()).publish(anyLong(), any());
+        verify(leaderboardService, never()).refresh(anyLong(), any());
+    }
+    
+    private StatisticsUpdateWorker worker(int queueCapacity) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.initialize();
+        return new StatisticsUpdateWorker(executor, statisticsService, dashboardCacheInvalidator,
+                readYourWritesGuard, dashboardUpdatePublisher, leaderboardService, meterRegistry);
+    }
+    
+    // Occupies the only worker thread until the returned latch is released
+    private CountDownLatch blockWorkerThread() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+    
+    private void waitForCount(String counter) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter(counter).count() == 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1.0, meterRegistry.counter(counter).count());
+    }
+    
+    private static SessionCompletedEvent event(Long userId, Long sessionId) {
+        return new SessionCompletedEvent(userId, sessionId, 25, null);
+    }
+}